@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import org.elastos.did.benchmark.util.Aes256cbcKey;
+import org.elastos.did.util.Aes256cbc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.GeneralSecurityException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Aes256cbcBenchmark {
+	private static final String passwd = "secret";
+
+	@Param({ "64", "4096" })
+	private int size;
+
+	private byte[] plain;
+	private byte[] cipher;
+	private Aes256cbcKey key;
+
+	@Setup
+	public void setup() throws GeneralSecurityException {
+		plain = new byte[size];
+		new Random(size).nextBytes(plain);
+		cipher = Aes256cbc.encrypt(passwd, plain);
+		key = Aes256cbcKey.derive(passwd);
+	}
+
+	@Benchmark
+	public byte[] encrypt() throws GeneralSecurityException {
+		return Aes256cbc.encrypt(passwd, plain);
+	}
+
+	@Benchmark
+	public byte[] decrypt() throws GeneralSecurityException {
+		return Aes256cbc.decrypt(passwd, cipher);
+	}
+
+	@Benchmark
+	public byte[] encryptWithKey() throws GeneralSecurityException {
+		return key.encrypt(plain);
+	}
+
+	@Benchmark
+	public byte[] decryptWithKey() throws GeneralSecurityException {
+		return key.decrypt(cipher);
+	}
+}
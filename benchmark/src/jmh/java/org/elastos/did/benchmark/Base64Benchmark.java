@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import org.elastos.did.benchmark.util.Base64Codec;
+import org.elastos.did.benchmark.util.Base64InputStream;
+import org.elastos.did.benchmark.util.Base64OutputStream;
+import org.elastos.did.util.Base64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Base64Benchmark {
+	private static final int flags = Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP;
+
+	private byte[] plain;
+	private String encoded;
+	private ByteArrayOutputStream sink = new ByteArrayOutputStream(8192);
+	private byte[] buffer = new byte[4096];
+	private byte[] encodedBuffer;
+	private byte[] decodedBuffer;
+
+	@Setup
+	public void setup() throws IOException {
+		// A transaction payload is the base64url form of a compact document.
+		plain = Fixtures.loadBytes(Fixtures.COMPACT_DOCUMENT);
+		encoded = Base64.encodeToString(plain, flags);
+		encodedBuffer = new byte[Base64Codec.encodedLength(plain.length, flags)];
+		decodedBuffer = new byte[Base64Codec.maxDecodedLength(encoded.length())];
+	}
+
+	@Benchmark
+	public String encode() {
+		return Base64.encodeToString(plain, flags);
+	}
+
+	@Benchmark
+	public byte[] decode() {
+		return Base64.decode(encoded, flags);
+	}
+
+	@Benchmark
+	public int encodeInto() {
+		return Base64Codec.encode(plain, 0, plain.length, encodedBuffer, 0, flags);
+	}
+
+	@Benchmark
+	public int decodeInto() {
+		return Base64Codec.decode(encoded, 0, encoded.length(), decodedBuffer, 0, flags);
+	}
+
+	@Benchmark
+	public int encodeStream() throws IOException {
+		sink.reset();
+		OutputStream out = new Base64OutputStream(sink, flags);
+		out.write(plain);
+		out.close();
+		return sink.size();
+	}
+
+	@Benchmark
+	public int decodeStream() throws IOException {
+		InputStream in = new Base64InputStream(encoded, flags);
+		int total = 0;
+		int len;
+		while ((len = in.read(buffer)) > 0)
+			total += len;
+
+		in.close();
+		return total;
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.elastos.did.DIDDocument;
+import org.elastos.did.DIDException;
+import org.elastos.did.MalformedDocumentException;
+import org.elastos.did.PublicKey;
+import org.elastos.did.util.Base64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DIDDocumentBenchmark {
+	private String json;
+	private byte[] bytes;
+	private DIDDocument doc;
+
+	private ObjectMapper mapper = new ObjectMapper();
+	private JsonFactory factory = new JsonFactory();
+
+	@Setup
+	public void setup() throws IOException, DIDException {
+		bytes = Fixtures.loadBytes(Fixtures.TEST_DOCUMENT);
+		json = new String(bytes, StandardCharsets.UTF_8);
+		doc = DIDDocument.fromJson(new StringReader(json));
+
+		// Guard against measuring a serializer that no longer matches the fixtures.
+		if (!Fixtures.load(Fixtures.COMPACT_DOCUMENT).equals(doc.toExternalForm(true)))
+			throw new IllegalStateException("Compact form does not match " + Fixtures.COMPACT_DOCUMENT);
+		if (!Fixtures.load(Fixtures.NORMALIZED_DOCUMENT).equals(doc.toExternalForm(false)))
+			throw new IllegalStateException("Normalized form does not match " + Fixtures.NORMALIZED_DOCUMENT);
+	}
+
+	@Benchmark
+	public DIDDocument fromJson() throws MalformedDocumentException {
+		return DIDDocument.fromJson(new StringReader(json));
+	}
+
+	// Resolved documents arrive as bytes and have to go through a Reader.
+	@Benchmark
+	public DIDDocument fromBytes() throws MalformedDocumentException {
+		return DIDDocument.fromJson(new InputStreamReader(
+				new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+	}
+
+	// The common resolve use: only the keys are needed, the full document is paid.
+	@Benchmark
+	public List<PublicKey> fromJsonPublicKeys() throws MalformedDocumentException {
+		return DIDDocument.fromJson(new StringReader(json)).getPublicKeys();
+	}
+
+	// Lower bounds for a parser: a JsonNode tree, and a bare token scan.
+	@Benchmark
+	public JsonNode jacksonTree() throws IOException {
+		return mapper.readTree(bytes);
+	}
+
+	@Benchmark
+	public int jacksonTokens() throws IOException {
+		JsonParser parser = factory.createParser(bytes);
+		int tokens = 0;
+		while (parser.nextToken() != null)
+			tokens++;
+
+		parser.close();
+		return tokens;
+	}
+
+	@Benchmark
+	public String toCompactForm() throws DIDException {
+		return doc.toExternalForm(true);
+	}
+
+	@Benchmark
+	public String toNormalizedForm() throws DIDException {
+		return doc.toExternalForm(false);
+	}
+
+	// What storing and signing pay today: the String, then its bytes.
+	@Benchmark
+	public byte[] toCompactBytes() throws DIDException {
+		return doc.toExternalForm(true).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public byte[] toNormalizedBytes() throws DIDException {
+		return doc.toExternalForm(false).getBytes(StandardCharsets.UTF_8);
+	}
+
+	// The shape of a createIdTransaction payload: a document in base64url.
+	@Benchmark
+	public String toPayload() throws DIDException {
+		return Base64.encodeToString(
+				doc.toExternalForm(false).getBytes(StandardCharsets.UTF_8),
+				Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP);
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import org.elastos.did.DID;
+import org.elastos.did.DIDException;
+import org.elastos.did.DIDStore;
+import org.elastos.did.DIDStore.Entry;
+import org.elastos.did.DIDURL;
+import org.elastos.did.backend.DIDBackend;
+import org.elastos.did.benchmark.backend.NullAdaptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing cost against store size; with a directory walk it grows
+ * linearly with the number of DIDs.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DIDStoreBenchmark {
+	@Param({ "filesystem" })
+	private String type;
+
+	@Param({ "100", "1000" })
+	private int size;
+
+	private StoreFixture fixture;
+	private DID did;
+
+	@Setup
+	public void setup() throws IOException, DIDException {
+		DIDBackend.initialize(new NullAdaptor());
+		fixture = StoreFixture.create(type, size, true);
+		did = fixture.dids.get(size / 2);
+	}
+
+	@TearDown
+	public void teardown() {
+		fixture.delete();
+	}
+
+	@Benchmark
+	public List<Entry<DID, String>> listDids() throws DIDException {
+		return fixture.store.listDids(DIDStore.DID_ALL);
+	}
+
+	@Benchmark
+	public List<Entry<DIDURL, String>> listCredentials() throws DIDException {
+		return fixture.store.listCredentials(did);
+	}
+}
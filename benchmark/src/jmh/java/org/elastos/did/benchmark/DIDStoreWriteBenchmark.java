@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import org.elastos.credential.Issuer;
+import org.elastos.credential.VerifiableCredential;
+import org.elastos.did.DID;
+import org.elastos.did.DIDDocument;
+import org.elastos.did.DIDException;
+import org.elastos.did.DIDURL;
+import org.elastos.did.backend.DIDBackend;
+import org.elastos.did.benchmark.backend.NullAdaptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store read and write paths, per backend type. Compare layouts with
+ * e.g. {@code -p type=filesystem,packed} on the JMH command line; the
+ * disk footprint of the 100-DID fixture is taken right after it is built,
+ * so it does not depend on which benchmark ran, and printed on teardown.
+ *
+ * newDid grows the store it writes to, so it runs in single-shot batches
+ * of 100 calls, each into a fresh one-DID store, and never builds the
+ * fixture. Its score is the time for the whole batch, not for one call.
+ *
+ * newDid, publishDid and issueCredential take the store passphrase and
+ * so include decrypting the private identity on every call.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DIDStoreWriteBenchmark {
+	private static final int NEW_DID_BATCH = 100;
+
+	@Param({ "filesystem" })
+	private String type;
+
+	@State(Scope.Benchmark)
+	public static class Populated {
+		private StoreFixture fixture;
+		private Issuer issuer;
+		private VerifiableCredential vc;
+		private DID did;
+		private DIDDocument doc;
+		private DIDURL signKey;
+		private DIDURL vcId;
+		private DiskUsage footprint;
+		private String type;
+
+		@Setup
+		public void setup(DIDStoreWriteBenchmark benchmark) throws IOException, DIDException {
+			type = benchmark.type;
+			fixture = StoreFixture.create(type, 100, true);
+			footprint = DiskUsage.of(fixture.root);
+			did = fixture.dids.get(50);
+			doc = fixture.store.loadDid(did);
+			signKey = new DIDURL(did, "primary");
+			vcId = new DIDURL(did, "cred-1");
+			issuer = new Issuer(fixture.dids.get(0));
+			vc = StoreFixture.issue(issuer, did, "cred-3");
+		}
+
+		@TearDown
+		public void teardown() {
+			System.out.println();
+			System.out.println(type + " store, 100 DIDs: " + footprint);
+			fixture.delete();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class FreshStore {
+		private StoreFixture fixture;
+
+		@Setup(Level.Iteration)
+		public void setup(DIDStoreWriteBenchmark benchmark) throws IOException, DIDException {
+			fixture = StoreFixture.create(benchmark.type, 1, false);
+		}
+
+		@TearDown(Level.Iteration)
+		public void teardown() {
+			fixture.delete();
+		}
+	}
+
+	@Setup
+	public void setup() {
+		DIDBackend.initialize(new NullAdaptor());
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 3, batchSize = NEW_DID_BATCH)
+	@Measurement(iterations = 5, batchSize = NEW_DID_BATCH)
+	public DIDDocument newDid(FreshStore fresh) throws DIDException {
+		return fresh.fixture.store.newDid(StoreFixture.passphrase, "bench");
+	}
+
+	@Benchmark
+	public void publishDid(Populated p) throws DIDException {
+		p.fixture.store.publishDid(p.doc, p.signKey, StoreFixture.passphrase);
+	}
+
+	@Benchmark
+	public VerifiableCredential issueCredential(Populated p) throws DIDException {
+		return StoreFixture.issue(p.issuer, p.did, "cred-3");
+	}
+
+	@Benchmark
+	public void storeCredential(Populated p) throws DIDException {
+		p.fixture.store.storeCredential(p.vc, "bench");
+	}
+
+	@Benchmark
+	public DIDDocument loadDid(Populated p) throws DIDException {
+		return p.fixture.store.loadDid(p.did);
+	}
+
+	@Benchmark
+	public VerifiableCredential loadCredential(Populated p) throws DIDException {
+		return p.fixture.store.loadCredential(p.did, p.vcId);
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import org.elastos.did.DIDURL;
+import org.elastos.did.MalformedDIDURLException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DIDURL parsing by URL shape, from the common key and credential id
+ * form (did#fragment) to a URL with every component, as in DIDURLTest.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DIDURLParseBenchmark {
+	private static final String testDID = "did:elastos:icJ4z2DULrHEzYSvjKNJpKyhqFDxvYV7pN";
+	private static final String params = "elastos:foo=testvalue;bar=123;keyonly;elastos:foobar=12345";
+	private static final String path = "/path/to/the/resource";
+	private static final String query = "qkey=qvalue&qkeyonly&test=true";
+	private static final String fragment = "testfragment";
+
+	@Param({ "fragment", "path", "query", "full" })
+	private String shape;
+
+	private String testURL;
+
+	@Setup
+	public void setup() {
+		if (shape.equals("fragment"))
+			testURL = testDID + "#" + fragment;
+		else if (shape.equals("path"))
+			testURL = testDID + path + "#" + fragment;
+		else if (shape.equals("query"))
+			testURL = testDID + "?" + query + "#" + fragment;
+		else if (shape.equals("full"))
+			testURL = testDID + ";" + params + path + "?" + query + "#" + fragment;
+		else
+			throw new IllegalArgumentException("Unknown shape '" + shape + "'.");
+	}
+
+	@Benchmark
+	public DIDURL parse() throws MalformedDIDURLException {
+		return new DIDURL(testURL);
+	}
+
+	// The common follow-up: only the fragment is ever read.
+	@Benchmark
+	public String parseGetFragment() throws MalformedDIDURLException {
+		return new DIDURL(testURL).getFragment();
+	}
+
+	// Reading parameters too, what lazily built maps would pay on access.
+	@Benchmark
+	public String parseGetParameters() throws MalformedDIDURLException {
+		DIDURL url = new DIDURL(testURL);
+		String value = url.getParameter("elastos:foo");
+		return value != null ? value : url.getQueryParameter("qkey");
+	}
+}
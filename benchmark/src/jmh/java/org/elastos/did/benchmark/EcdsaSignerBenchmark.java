@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import org.elastos.did.benchmark.util.BatchVerifier;
+import org.elastos.did.util.EcdsaSigner;
+import org.elastos.did.util.HDKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongycastle.asn1.x9.ECNamedCurveTable;
+import org.spongycastle.math.ec.ECCurve;
+import org.spongycastle.math.ec.ECPoint;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EcdsaSignerBenchmark {
+	private static final byte[] plain = "The quick brown fox jumps over the lazy dog.".getBytes();
+	private static final byte[] nonce = "testcase".getBytes();
+	private static final int BATCH = 64;
+
+	private byte[] privateKey;
+	private byte[] publicKey;
+	private byte[] sig;
+	private List<BatchVerifier.Item> batch;
+	private BatchVerifier verifier = new BatchVerifier();
+	private ECCurve curve = ECNamedCurveTable.getByName("secp256r1").getCurve();
+	private int next;
+
+	@Setup
+	public void setup() {
+		HDKey root = HDKey.fromMnemonic(Fixtures.MNEMONIC, "");
+		HDKey.DerivedKey key = root.derive(0);
+		privateKey = key.getPrivateKeyBytes();
+		publicKey = key.getPublicKeyBytes();
+		sig = EcdsaSigner.sign(privateKey, plain, nonce);
+
+		batch = new ArrayList<BatchVerifier.Item>(BATCH);
+		for (int i = 0; i < BATCH; i++) {
+			HDKey.DerivedKey k = root.derive(i);
+			byte[] data = ("document " + i).getBytes();
+			batch.add(new BatchVerifier.Item(k.getPublicKeyBytes(), data, nonce,
+					EcdsaSigner.sign(k.getPrivateKeyBytes(), data, nonce)));
+		}
+	}
+
+	@Benchmark
+	public byte[] sign() {
+		return EcdsaSigner.sign(privateKey, plain, nonce);
+	}
+
+	// Run with -PjmhProfilers=gc for bytes allocated per signature.
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public byte[] signThroughput() {
+		return EcdsaSigner.sign(privateKey, plain, nonce);
+	}
+
+	// Shows contention or sharing costs in per-call signer state.
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@Threads(Threads.MAX)
+	public byte[] signThroughputAllThreads() {
+		return EcdsaSigner.sign(privateKey, plain, nonce);
+	}
+
+	@Benchmark
+	public boolean verify() {
+		return EcdsaSigner.verify(publicKey, plain, nonce, sig);
+	}
+
+	// Every call sees a different key, so nothing decoded can be reused.
+	@Benchmark
+	public boolean verifyRotatingKeys() {
+		return batch.get(next++ & (BATCH - 1)).verify();
+	}
+
+	// The share of a verify spent decoding and validating the public key.
+	@Benchmark
+	public ECPoint decodePublicKey() {
+		ECPoint point = curve.decodePoint(publicKey);
+		if (!point.isValid())
+			throw new IllegalStateException();
+
+		return point;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int verifySequential() {
+		int valid = 0;
+		for (BatchVerifier.Item item : batch) {
+			if (item.verify())
+				valid++;
+		}
+
+		return valid;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public BitSet verifyBatch() {
+		return verifier.verify(batch, false);
+	}
+}
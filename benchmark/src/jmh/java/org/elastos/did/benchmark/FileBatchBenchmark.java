@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import org.elastos.did.benchmark.util.FileBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of persisting what the file system store writes for a DID with two
+ * credentials (document, .meta hint, two credentials and one alias), for
+ * didsPerBatch DIDs per invocation: one fsync per file, no fsync at all,
+ * and one FileBatch commit.
+ *
+ * Run it on the disk the store will live on; tmpfs hides the difference.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileBatchBenchmark {
+	// Files are reused round robin, so the directory stays this size.
+	private static final int SLOTS = 1000;
+
+	@Param({ "1", "10", "100" })
+	private int didsPerBatch;
+
+	private File root;
+	private FileBatch batch;
+	private byte[] document;
+	private byte[] credential;
+	private byte[] hint;
+	private int next;
+
+	@Setup
+	public void setup() throws IOException {
+		root = Files.createTempDirectory("filebatch-bench").toFile();
+		batch = new FileBatch(new File(root, "batched"));
+		document = Fixtures.loadBytes(Fixtures.TEST_DOCUMENT);
+		credential = new byte[800];
+		hint = "my did".getBytes();
+	}
+
+	@TearDown
+	public void teardown() throws IOException {
+		batch.close();
+		System.out.println();
+		System.out.println("fsyncs by FileBatch: " + batch.getSyncCount());
+		StoreFixture.deleteFile(root);
+	}
+
+	@Benchmark
+	public void writeEachSynced() throws IOException {
+		File dir = new File(root, "synced");
+		for (int i = 0; i < didsPerBatch; i++)
+			layout(dir, true);
+	}
+
+	@Benchmark
+	public void writeEachUnsynced() throws IOException {
+		File dir = new File(root, "unsynced");
+		for (int i = 0; i < didsPerBatch; i++)
+			layout(dir, false);
+	}
+
+	@Benchmark
+	public void batchCommit() throws IOException {
+		for (int i = 0; i < didsPerBatch; i++) {
+			File did = slot(batch.getRoot());
+			batch.write(new File(did, "document"), document);
+			batch.write(new File(did.getParentFile(), "." + did.getName() + ".meta"), hint);
+			batch.write(new File(did, "credentials/cred-1/credential"), credential);
+			batch.write(new File(did, "credentials/cred-1/.meta"), hint);
+			batch.write(new File(did, "credentials/cred-2/credential"), credential);
+		}
+
+		batch.commit();
+	}
+
+	private File slot(File dir) {
+		return new File(dir, "ids/did-" + (next++ % SLOTS));
+	}
+
+	private void layout(File dir, boolean sync) throws IOException {
+		File did = slot(dir);
+		write(new File(did, "document"), document, sync);
+		write(new File(did.getParentFile(), "." + did.getName() + ".meta"), hint, sync);
+		write(new File(did, "credentials/cred-1/credential"), credential, sync);
+		write(new File(did, "credentials/cred-1/.meta"), hint, sync);
+		write(new File(did, "credentials/cred-2/credential"), credential, sync);
+	}
+
+	private static void write(File file, byte[] data, boolean sync) throws IOException {
+		file.getParentFile().mkdirs();
+
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(data);
+			if (sync)
+				out.getFD().sync();
+		} finally {
+			out.close();
+		}
+	}
+}
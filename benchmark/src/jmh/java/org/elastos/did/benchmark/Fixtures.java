@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+final class Fixtures {
+	static final String TEST_DOCUMENT = "testdiddoc.json";
+	static final String COMPACT_DOCUMENT = "compact.json";
+	static final String NORMALIZED_DOCUMENT = "normalized.json";
+
+	static final String MNEMONIC = "cloth always junk crash fun exist stumble shift over benefit fun toe";
+
+	private Fixtures() {
+	}
+
+	static byte[] loadBytes(String name) throws IOException {
+		InputStream in = Fixtures.class.getClassLoader().getResourceAsStream(name);
+		if (in == null)
+			throw new IOException("Missing fixture '" + name + "'.");
+
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+			byte[] buf = new byte[4096];
+			int len;
+			while ((len = in.read(buf)) > 0)
+				out.write(buf, 0, len);
+
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+	static String load(String name) throws IOException {
+		return new String(loadBytes(name), StandardCharsets.UTF_8);
+	}
+}
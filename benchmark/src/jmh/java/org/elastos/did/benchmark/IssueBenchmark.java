@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import org.elastos.credential.Issuer;
+import org.elastos.credential.VerifiableCredential;
+import org.elastos.did.DID;
+import org.elastos.did.DIDException;
+import org.elastos.did.backend.DIDBackend;
+import org.elastos.did.benchmark.backend.NullAdaptor;
+import org.elastos.did.benchmark.credential.BulkIssuer;
+import org.elastos.did.benchmark.credential.SampleCredentials;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credentials issued per second by one issuer for 100 subjects, the
+ * test05IssueSelfClaimCredential2 loop against BulkIssuer.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IssueBenchmark {
+	private static final int SUBJECTS = 100;
+
+	private StoreFixture fixture;
+	private Issuer issuer;
+	private BulkIssuer bulkIssuer;
+	private ExecutorService executor;
+	private List<BulkIssuer.Template> templates;
+
+	@Setup
+	public void setup() throws IOException, DIDException {
+		DIDBackend.initialize(new NullAdaptor());
+		fixture = StoreFixture.create("filesystem", SUBJECTS, false);
+
+		DID issuerDid = fixture.dids.get(0);
+		int cores = Runtime.getRuntime().availableProcessors();
+		executor = Executors.newFixedThreadPool(cores);
+		issuer = new Issuer(issuerDid);
+		bulkIssuer = new BulkIssuer(issuerDid, executor, cores);
+
+		templates = new ArrayList<BulkIssuer.Template>(SUBJECTS);
+		for (DID did : fixture.dids)
+			templates.add(SampleCredentials.profileTemplate(did, "cred-1"));
+	}
+
+	@TearDown
+	public void teardown() {
+		executor.shutdown();
+		fixture.delete();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SUBJECTS)
+	public int issueLoop() throws DIDException {
+		int n = 0;
+		for (DID did : fixture.dids) {
+			VerifiableCredential vc = StoreFixture.issue(issuer, did, "cred-1");
+			if (vc != null)
+				n++;
+		}
+
+		return n;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SUBJECTS)
+	public List<VerifiableCredential> issueAll() throws DIDException {
+		return bulkIssuer.issueAll(templates, StoreFixture.passphrase);
+	}
+}
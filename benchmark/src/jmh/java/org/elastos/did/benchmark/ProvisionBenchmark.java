@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import org.elastos.did.DIDException;
+import org.elastos.did.backend.DIDBackend;
+import org.elastos.did.benchmark.backend.NullAdaptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DIDs provisioned per second by the sequential newDid loop, the
+ * baseline a bulk creation API has to beat. Every call provisions
+ * exactly 100 DIDs into a fresh one-DID store built outside the timed
+ * region, so the score does not drift as DIDs pile up.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProvisionBenchmark {
+	private static final int BATCH = 100;
+
+	@Param({ "filesystem" })
+	private String type;
+
+	private StoreFixture fixture;
+	private int n;
+
+	@Setup
+	public void setup() {
+		DIDBackend.initialize(new NullAdaptor());
+	}
+
+	// A call takes far longer than JMH's per-invocation bookkeeping.
+	@Setup(Level.Invocation)
+	public void createStore() throws IOException, DIDException {
+		fixture = StoreFixture.create(type, 1, false);
+	}
+
+	@TearDown(Level.Invocation)
+	public void deleteStore() {
+		fixture.delete();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void newDidLoop() throws DIDException {
+		for (int i = 0; i < BATCH; i++)
+			fixture.store.newDid(StoreFixture.passphrase, "user " + n++);
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import org.elastos.credential.Issuer;
+import org.elastos.credential.VerifiableCredential;
+import org.elastos.did.DID;
+import org.elastos.did.DIDDocument;
+import org.elastos.did.DIDException;
+import org.elastos.did.DIDStore;
+import org.elastos.did.benchmark.credential.SampleCredentials;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A populated store laid out like the one DIDStoreTest builds: every DID
+ * carries an aliased "cred-1" and an unaliased "cred-2".
+ */
+final class StoreFixture {
+	static final String passphrase = "secret";
+
+	final File root;
+	final DIDStore store;
+	final List<DID> dids;
+
+	private StoreFixture(File root, DIDStore store, List<DID> dids) {
+		this.root = root;
+		this.store = store;
+		this.dids = dids;
+	}
+
+	static StoreFixture create(String type, int count, boolean credentials)
+			throws IOException, DIDException {
+		File root = Files.createTempDirectory("didstore-bench").toFile();
+
+		DIDStore.initialize(type, root.getAbsolutePath(), passphrase);
+		DIDStore store = DIDStore.getInstance();
+		store.initPrivateIdentity(Fixtures.MNEMONIC, passphrase, true);
+
+		List<DID> dids = new ArrayList<DID>(count);
+		for (int i = 0; i < count; i++) {
+			DIDDocument doc = store.newDid(passphrase, "my did " + i);
+			dids.add(doc.getSubject());
+		}
+
+		if (credentials) {
+			Issuer issuer = new Issuer(dids.get(0));
+			for (DID did : dids) {
+				store.storeCredential(issue(issuer, did, "cred-1"), "default");
+				store.storeCredential(issue(issuer, did, "cred-2"));
+			}
+		}
+
+		return new StoreFixture(root, store, dids);
+	}
+
+	static VerifiableCredential issue(Issuer issuer, DID did, String id)
+			throws DIDException {
+		return SampleCredentials.profile(issuer, did, id, passphrase);
+	}
+
+	void delete() {
+		deleteFile(root);
+	}
+
+	static void deleteFile(File file) {
+		if (file.isDirectory()) {
+			File[] children = file.listFiles();
+			for (File child : children)
+				deleteFile(child);
+		}
+
+		file.delete();
+	}
+}
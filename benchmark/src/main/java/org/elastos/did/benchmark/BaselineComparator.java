@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result file against a stored baseline and reports
+ * every benchmark whose score moved in the wrong direction by more than
+ * the given relative threshold.
+ */
+public class BaselineComparator {
+	private final double threshold;
+
+	public BaselineComparator(double threshold) {
+		this.threshold = threshold;
+	}
+
+	public List<String> compare(JsonNode baseline, JsonNode current, PrintStream out) {
+		Map<String, JsonNode> base = index(baseline);
+		List<String> regressions = new ArrayList<String>();
+
+		for (Map.Entry<String, JsonNode> entry : index(current).entrySet()) {
+			String key = entry.getKey();
+			JsonNode result = entry.getValue();
+			JsonNode metric = result.get("primaryMetric");
+			double score = metric.get("score").asDouble();
+			String unit = metric.get("scoreUnit").asText();
+
+			JsonNode old = base.get(key);
+			if (old == null) {
+				out.println(String.format("%-72s %14.3f %-10s (new)", key, score, unit));
+				continue;
+			}
+
+			double oldScore = old.get("primaryMetric").get("score").asDouble();
+			double change = oldScore == 0 ? 0 : (score - oldScore) / oldScore;
+
+			// Throughput modes are better when higher, time modes when lower.
+			boolean higherIsBetter = "thrpt".equals(result.get("mode").asText());
+			double worse = higherIsBetter ? -change : change;
+
+			String status = worse > threshold ? "REGRESSION" : "";
+			out.println(String.format("%-72s %14.3f %-10s %+7.1f%% %s",
+					key, score, unit, change * 100, status));
+
+			if (worse > threshold)
+				regressions.add(key);
+		}
+
+		return regressions;
+	}
+
+	private static Map<String, JsonNode> index(JsonNode results) {
+		Map<String, JsonNode> map = new LinkedHashMap<String, JsonNode>();
+
+		for (JsonNode result : results) {
+			StringBuilder key = new StringBuilder(result.get("benchmark").asText());
+
+			JsonNode params = result.get("params");
+			if (params != null) {
+				Iterator<Map.Entry<String, JsonNode>> it = params.fields();
+				while (it.hasNext()) {
+					Map.Entry<String, JsonNode> param = it.next();
+					key.append(':').append(param.getKey())
+						.append('=').append(param.getValue().asText());
+				}
+			}
+
+			map.put(key.toString(), result);
+		}
+
+		return map;
+	}
+
+	public static void main(String[] args) throws IOException {
+		List<String> positional = new ArrayList<String>();
+		boolean allowMissing = false;
+		for (String arg : args) {
+			if (arg.equals("--allow-missing-baseline"))
+				allowMissing = true;
+			else
+				positional.add(arg);
+		}
+
+		if (positional.size() < 2) {
+			System.err.println("Usage: BaselineComparator [--allow-missing-baseline] "
+					+ "<baseline.json> <results.json> [threshold]");
+			System.exit(2);
+		}
+
+		File baselineFile = new File(positional.get(0));
+		File resultsFile = new File(positional.get(1));
+		double threshold = positional.size() > 2 ? Double.parseDouble(positional.get(2)) : 0.10;
+
+		if (!baselineFile.exists()) {
+			System.out.println("No baseline at " + baselineFile
+					+ ", record one with ./gradlew :benchmark:jmhBaseline.");
+			if (!allowMissing)
+				System.exit(1);
+
+			System.out.println("Nothing compared.");
+			return;
+		}
+
+		ObjectMapper mapper = new ObjectMapper();
+		List<String> regressions = new BaselineComparator(threshold).compare(
+				mapper.readTree(baselineFile), mapper.readTree(resultsFile), System.out);
+
+		if (!regressions.isEmpty()) {
+			System.out.println(regressions.size() + " benchmark(s) regressed by more than "
+					+ Math.round(threshold * 100) + "%.");
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import java.io.File;
+
+/**
+ * Number of files and bytes below a directory, the footprint that
+ * distinguishes one store layout from another.
+ */
+public class DiskUsage {
+	private final long files;
+	private final long directories;
+	private final long bytes;
+
+	private DiskUsage(long files, long directories, long bytes) {
+		this.files = files;
+		this.directories = directories;
+		this.bytes = bytes;
+	}
+
+	public static DiskUsage of(File root) {
+		long[] counts = new long[3];
+		walk(root, counts);
+		return new DiskUsage(counts[0], counts[1], counts[2]);
+	}
+
+	private static void walk(File file, long[] counts) {
+		if (file.isDirectory()) {
+			counts[1]++;
+
+			File[] children = file.listFiles();
+			if (children != null) {
+				for (File child : children)
+					walk(child, counts);
+			}
+		} else if (file.isFile()) {
+			counts[0]++;
+			counts[2] += file.length();
+		}
+	}
+
+	public long getFiles() {
+		return files;
+	}
+
+	public long getDirectories() {
+		return directories;
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	@Override
+	public String toString() {
+		return files + " files, " + directories + " directories, " + bytes + " bytes";
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import org.elastos.did.DID;
+import org.elastos.did.DIDException;
+import org.elastos.did.DIDURL;
+import org.elastos.did.benchmark.util.DIDPool;
+
+import java.util.Random;
+
+/**
+ * Retained heap of the identifiers an application keeps per resolved
+ * document (the subject DID, its primary key id and a credential id),
+ * for a million documents over a smaller set of distinct DIDs, parsed
+ * fresh every time versus shared through a DIDPool.
+ *
+ * JMH measures time and allocation rate, not what stays reachable, so
+ * this runs stand-alone: ./gradlew :benchmark:heapFootprint
+ */
+public class HeapFootprint {
+	private static final String BASE58 =
+			"123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz";
+
+	private final String[] subjects;
+
+	public HeapFootprint(int distinct) {
+		Random random = new Random(distinct);
+		subjects = new String[distinct];
+
+		for (int i = 0; i < distinct; i++) {
+			StringBuilder sb = new StringBuilder("did:elastos:i");
+			for (int j = 0; j < 33; j++)
+				sb.append(BASE58.charAt(random.nextInt(BASE58.length())));
+			subjects[i] = sb.toString();
+		}
+	}
+
+	// Bytes still reachable after holding three identifiers per document.
+	public long measure(int documents, boolean pooled) throws DIDException {
+		Object[] retained = new Object[documents * 3];
+		DIDPool pool = pooled ? new DIDPool() : null;
+
+		long before = usedHeap();
+		for (int i = 0; i < documents; i++) {
+			// A fresh String, as it would come out of a parsed document.
+			String subject = new String(subjects[i % subjects.length]);
+
+			if (pooled) {
+				DID did = pool.did(subject);
+				retained[i * 3] = did;
+				retained[i * 3 + 1] = pool.url(did, "primary");
+				retained[i * 3 + 2] = pool.url(subject + "#cred-1");
+			} else {
+				DID did = new DID(subject);
+				retained[i * 3] = did;
+				retained[i * 3 + 1] = new DIDURL(did, "primary");
+				retained[i * 3 + 2] = new DIDURL(subject + "#cred-1");
+			}
+		}
+		long after = usedHeap();
+
+		// Keep everything reachable until after the measurement.
+		if (retained[retained.length - 1] == null || (pool != null && pool.size() == 0))
+			throw new IllegalStateException();
+
+		return after - before;
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+
+		// Collect until the figure settles.
+		for (int i = 0; i < 10; i++) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+
+			long now = runtime.totalMemory() - runtime.freeMemory();
+			if (Math.abs(used - now) < 64 * 1024)
+				return now;
+			used = now;
+		}
+
+		return used;
+	}
+
+	public static void main(String[] args) throws DIDException {
+		int documents = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int distinct = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+
+		HeapFootprint footprint = new HeapFootprint(distinct);
+		System.out.println(documents + " documents over " + distinct + " distinct DIDs");
+
+		// Warm up class loading and the JIT before measuring.
+		footprint.measure(Math.min(documents, 10000), true);
+		footprint.measure(Math.min(documents, 10000), false);
+
+		for (boolean pooled : new boolean[] { false, true }) {
+			long bytes = footprint.measure(documents, pooled);
+			System.out.println(String.format("%-8s %,14d bytes %8.1f bytes/document",
+					pooled ? "pooled" : "parsed", bytes, (double)bytes / documents));
+		}
+	}
+}
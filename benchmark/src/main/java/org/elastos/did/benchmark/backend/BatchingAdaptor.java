@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.backend;
+
+import org.elastos.did.DIDException;
+import org.elastos.did.backend.DIDAdaptor;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A DIDAdaptor that coalesces concurrent createIdTransaction calls into
+ * BulkDIDAdaptor.createIdTransactions batches.
+ *
+ * Each caller blocks until its batch has been submitted. A batch is sent
+ * when it reaches the maximum size or when the first transaction in it has
+ * waited for the linger time. Adaptors that do not support bulk submission
+ * get every call passed straight through, so concurrent callers (see
+ * DIDPublisher) still pipeline their submissions.
+ *
+ * Batches flushed by the linger timer are submitted from a pool of
+ * daemon threads, so a slow bulk call (one waiting for its block, say)
+ * does not hold up the next batch. close() submits what is still pending
+ * and stops the threads.
+ */
+public class BatchingAdaptor implements DIDAdaptor, Closeable {
+	private final DIDAdaptor adaptor;
+	private final int maxBatchSize;
+	private final long linger;
+	private final ScheduledExecutorService timer;
+	private final ExecutorService flusher;
+
+	private List<Pending> pending;
+	private long batches;
+	private boolean closed;
+
+	private static class Pending {
+		private final IdTransaction tx;
+		private final CountDownLatch done = new CountDownLatch(1);
+		private TransactionResult result;
+
+		private Pending(IdTransaction tx) {
+			this.tx = tx;
+		}
+
+		private synchronized void complete(TransactionResult result) {
+			if (this.result != null)
+				return;
+
+			this.result = result;
+			done.countDown();
+		}
+	}
+
+	public BatchingAdaptor(DIDAdaptor adaptor, int maxBatchSize,
+			long linger, TimeUnit unit) {
+		if (adaptor == null || maxBatchSize <= 0 || linger < 0)
+			throw new IllegalArgumentException();
+
+		this.adaptor = adaptor;
+		this.maxBatchSize = maxBatchSize;
+		this.linger = unit.toNanos(linger);
+		this.pending = new ArrayList<Pending>(maxBatchSize);
+		this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "did-batch-timer");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		this.flusher = Executors.newCachedThreadPool(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "did-batch-flush");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	@Override
+	public boolean createIdTransaction(String payload, String memo)
+			throws DIDException {
+		if (!(adaptor instanceof BulkDIDAdaptor) || !((BulkDIDAdaptor)adaptor).supportsBulk())
+			return adaptor.createIdTransaction(payload, memo);
+
+		Pending p = new Pending(new IdTransaction(payload, memo));
+		List<Pending> full = null;
+
+		synchronized (this) {
+			if (closed)
+				throw new DIDException("Batching adaptor is closed.");
+
+			pending.add(p);
+
+			if (pending.size() >= maxBatchSize) {
+				full = pending;
+				pending = new ArrayList<Pending>(maxBatchSize);
+			} else if (pending.size() == 1) {
+				final List<Pending> batch = pending;
+				timer.schedule(new Runnable() {
+					@Override
+					public void run() {
+						flush(batch);
+					}
+				}, linger, TimeUnit.NANOSECONDS);
+			}
+		}
+
+		if (full != null)
+			submit(full);
+
+		try {
+			p.done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DIDException("Interrupted while waiting for the ID transaction.", e);
+		}
+
+		if (p.result.getError() != null)
+			throw p.result.getError();
+
+		return p.result.isSuccess();
+	}
+
+	@Override
+	public String resolve(String did) throws DIDException {
+		return adaptor.resolve(did);
+	}
+
+	public synchronized long getBatchCount() {
+		return batches;
+	}
+
+	synchronized int getPendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * Submits the pending transactions on the calling thread and stops
+	 * the timer and flush threads. Later calls fail.
+	 */
+	@Override
+	public void close() {
+		List<Pending> batch;
+		synchronized (this) {
+			closed = true;
+			batch = pending;
+			pending = new ArrayList<Pending>(0);
+		}
+
+		timer.shutdownNow();
+		if (!batch.isEmpty())
+			submit(batch);
+		flusher.shutdown();
+	}
+
+	// Send the batch unless it already went out because it filled up.
+	private void flush(final List<Pending> batch) {
+		synchronized (this) {
+			if (batch != pending)
+				return;
+
+			pending = new ArrayList<Pending>(maxBatchSize);
+		}
+
+		try {
+			flusher.execute(new Runnable() {
+				@Override
+				public void run() {
+					submit(batch);
+				}
+			});
+		} catch (RuntimeException e) {
+			// Closed meanwhile; close() only drains what is still pending.
+			submit(batch);
+		}
+	}
+
+	private void submit(List<Pending> batch) {
+		List<IdTransaction> txs = new ArrayList<IdTransaction>(batch.size());
+		for (Pending p : batch)
+			txs.add(p.tx);
+
+		synchronized (this) {
+			batches++;
+		}
+
+		List<TransactionResult> results = null;
+		DIDException error = null;
+		try {
+			results = ((BulkDIDAdaptor)adaptor).createIdTransactions(txs);
+			if (results == null || results.size() != batch.size())
+				error = new DIDException("Bulk adaptor returned "
+						+ (results == null ? "no" : results.size())
+						+ " results for " + batch.size() + " transactions.");
+		} catch (DIDException e) {
+			error = e;
+		} catch (RuntimeException e) {
+			error = new DIDException("Bulk ID transaction failed.", e);
+		} finally {
+			// Also reached when an Error escapes, so no caller waits forever.
+			if (error == null && results == null)
+				error = new DIDException("Bulk ID transaction failed.");
+
+			for (int i = 0; i < batch.size(); i++)
+				batch.get(i).complete(error != null ? TransactionResult.failed(error)
+						: results.get(i));
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.backend;
+
+import org.elastos.did.DIDException;
+import org.elastos.did.backend.DIDAdaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DIDAdaptor that can submit many ID transactions in one call.
+ */
+public interface BulkDIDAdaptor extends DIDAdaptor {
+	/**
+	 * Whether createIdTransactions really submits in bulk. Decorators that
+	 * implement this interface on behalf of a plain DIDAdaptor return
+	 * false, so callers like BatchingAdaptor can pass calls through.
+	 */
+	default boolean supportsBulk() {
+		return true;
+	}
+
+	/**
+	 * Submit the transactions and report the outcome of each one, in the
+	 * same order. The default implementation submits them one by one.
+	 */
+	default List<TransactionResult> createIdTransactions(List<IdTransaction> transactions)
+			throws DIDException {
+		List<TransactionResult> results = new ArrayList<TransactionResult>(transactions.size());
+
+		for (IdTransaction tx : transactions) {
+			try {
+				results.add(TransactionResult.of(
+						createIdTransaction(tx.getPayload(), tx.getMemo())));
+			} catch (DIDException e) {
+				results.add(TransactionResult.failed(e));
+			}
+		}
+
+		return results;
+	}
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.elastos.did.DIDException;
+import org.elastos.did.backend.DIDAdaptor;
+import org.elastos.did.benchmark.util.Base64InputStream;
+import org.elastos.did.util.Base64;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A DIDAdaptor decorator that keeps recently resolved documents in a
+ * bounded LRU cache with a time-to-live.
+ *
+ * Unknown DIDs (the delegate returned null) are cached as well, with their
+ * own TTL. Publishing a document through createIdTransaction invalidates
+ * the cached entry for that DID, and the DID is not cached again until
+ * the delegate returns. Documents changed locally with DIDStore.storeDid
+ * never reach the adaptor, so callers doing that should call invalidate()
+ * themselves.
+ *
+ * The delegate returning is taken to mean the transaction is confirmed.
+ * With one that returns on submission (a real chain, or LocalChainAdaptor
+ * without waitForConfirmation), a resolve before the block still sees and
+ * caches the old document for the full TTL; call invalidate() once the
+ * transaction is confirmed, or use a TTL no longer than the block time.
+ *
+ * createIdTransactions is forwarded when the delegate submits in bulk.
+ */
+public class CachingAdaptor implements BulkDIDAdaptor {
+	private static final String NOT_FOUND = new String("<not found>");
+
+	private final DIDAdaptor adaptor;
+	private final long ttl;
+	private final long negativeTtl;
+	private final LinkedHashMap<String, CacheEntry> cache;
+	private final ObjectMapper mapper;
+	private long generation;
+	// DIDs with a transaction in the delegate; null key for unparsable ones.
+	private final Map<String, Integer> inFlight = new HashMap<String, Integer>();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	private static class CacheEntry {
+		private final String document;
+		private final long expires;
+
+		private CacheEntry(String document, long expires) {
+			this.document = document;
+			this.expires = expires;
+		}
+	}
+
+	public CachingAdaptor(DIDAdaptor adaptor, final int capacity,
+			long ttl, long negativeTtl, TimeUnit unit) {
+		if (adaptor == null || capacity <= 0 || ttl < 0 || negativeTtl < 0)
+			throw new IllegalArgumentException();
+
+		this.adaptor = adaptor;
+		this.ttl = unit.toNanos(ttl);
+		this.negativeTtl = unit.toNanos(negativeTtl);
+		this.mapper = new ObjectMapper();
+		this.cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+				if (size() <= capacity)
+					return false;
+
+				evictions.incrementAndGet();
+				return true;
+			}
+		};
+	}
+
+	public CachingAdaptor(DIDAdaptor adaptor, int capacity) {
+		this(adaptor, capacity, 5, 1, TimeUnit.MINUTES);
+	}
+
+	@Override
+	public boolean createIdTransaction(String payload, String memo)
+			throws DIDException {
+		List<String> dids = Collections.singletonList(getSubject(payload));
+
+		begin(dids);
+		try {
+			return adaptor.createIdTransaction(payload, memo);
+		} finally {
+			end(dids);
+		}
+	}
+
+	@Override
+	public boolean supportsBulk() {
+		return adaptor instanceof BulkDIDAdaptor && ((BulkDIDAdaptor)adaptor).supportsBulk();
+	}
+
+	@Override
+	public List<TransactionResult> createIdTransactions(List<IdTransaction> transactions)
+			throws DIDException {
+		if (!supportsBulk())
+			return BulkDIDAdaptor.super.createIdTransactions(transactions);
+
+		List<String> dids = new ArrayList<String>(transactions.size());
+		for (IdTransaction tx : transactions)
+			dids.add(getSubject(tx.getPayload()));
+
+		begin(dids);
+		try {
+			return ((BulkDIDAdaptor)adaptor).createIdTransactions(transactions);
+		} finally {
+			end(dids);
+		}
+	}
+
+	private void begin(List<String> dids) {
+		synchronized (cache) {
+			for (String did : dids) {
+				Integer n = inFlight.get(did);
+				inFlight.put(did, n == null ? 1 : n + 1);
+			}
+
+			invalidate(dids);
+		}
+	}
+
+	private void end(List<String> dids) {
+		synchronized (cache) {
+			for (String did : dids) {
+				int n = inFlight.get(did);
+				if (n == 1)
+					inFlight.remove(did);
+				else
+					inFlight.put(did, n - 1);
+			}
+
+			invalidate(dids);
+		}
+	}
+
+	// Must hold the cache lock.
+	private void invalidate(List<String> dids) {
+		if (dids.contains(null)) {
+			cache.clear();
+		} else {
+			for (String did : dids)
+				cache.remove(did);
+		}
+
+		generation++;
+	}
+
+	@Override
+	public String resolve(String did) throws DIDException {
+		long now = now();
+		long gen;
+
+		synchronized (cache) {
+			gen = generation;
+
+			CacheEntry entry = cache.get(did);
+			if (entry != null) {
+				if (entry.expires - now > 0) {
+					hits.incrementAndGet();
+					return entry.document == NOT_FOUND ? null : entry.document;
+				}
+
+				cache.remove(did);
+			}
+		}
+
+		misses.incrementAndGet();
+		String document = adaptor.resolve(did);
+
+		CacheEntry entry = document != null ?
+				new CacheEntry(document, now + ttl) :
+				new CacheEntry(NOT_FOUND, now + negativeTtl);
+
+		// Don't cache a result that raced with an invalidation, or one that
+		// a transaction in flight is about to change.
+		synchronized (cache) {
+			if (gen == generation && !inFlight.containsKey(did)
+					&& !inFlight.containsKey(null))
+				cache.put(did, entry);
+		}
+
+		return document;
+	}
+
+	public void invalidate(String did) {
+		synchronized (cache) {
+			cache.remove(did);
+			generation++;
+		}
+	}
+
+	public void invalidateAll() {
+		synchronized (cache) {
+			cache.clear();
+			generation++;
+		}
+	}
+
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	long now() {
+		return System.nanoTime();
+	}
+
+	// Extract the document id from an ID transaction, null if unparsable.
+	private String getSubject(String payload) {
+		try {
+			JsonNode tx = mapper.readTree(payload);
+			JsonNode doc = tx.get("payload");
+			if (doc == null)
+				return null;
+
+			JsonNode json = mapper.readTree(new Base64InputStream(doc.asText(),
+					Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP));
+			JsonNode id = json != null ? json.get("id") : null;
+			return id != null ? id.asText() : null;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.backend;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A source of simulated call latencies, in nanoseconds.
+ */
+public abstract class LatencyDistribution {
+	public static final LatencyDistribution NONE = fixed(0, TimeUnit.NANOSECONDS);
+
+	public abstract long nextNanos(Random random);
+
+	public static LatencyDistribution fixed(long latency, TimeUnit unit) {
+		final long nanos = unit.toNanos(latency);
+
+		return new LatencyDistribution() {
+			@Override
+			public long nextNanos(Random random) {
+				return nanos;
+			}
+
+			@Override
+			public String toString() {
+				return "fixed(" + nanos + "ns)";
+			}
+		};
+	}
+
+	public static LatencyDistribution uniform(long min, long max, TimeUnit unit) {
+		if (min < 0 || max < min)
+			throw new IllegalArgumentException();
+
+		final long lo = unit.toNanos(min);
+		final long span = unit.toNanos(max) - lo;
+
+		return new LatencyDistribution() {
+			@Override
+			public long nextNanos(Random random) {
+				return lo + (long)(random.nextDouble() * span);
+			}
+
+			@Override
+			public String toString() {
+				return "uniform(" + lo + "ns, " + (lo + span) + "ns)";
+			}
+		};
+	}
+
+	public static LatencyDistribution exponential(long mean, TimeUnit unit) {
+		final double nanos = unit.toNanos(mean);
+
+		return new LatencyDistribution() {
+			@Override
+			public long nextNanos(Random random) {
+				return (long)(-nanos * Math.log(1.0 - random.nextDouble()));
+			}
+
+			@Override
+			public String toString() {
+				return "exponential(" + (long)nanos + "ns)";
+			}
+		};
+	}
+
+	/**
+	 * Long-tailed latencies around a median, the usual shape of network
+	 * round trips; sigma 0.5 puts p99 at about 3.2 times the median.
+	 */
+	public static LatencyDistribution logNormal(long median, final double sigma,
+			TimeUnit unit) {
+		if (sigma < 0)
+			throw new IllegalArgumentException();
+
+		final double mu = Math.log(unit.toNanos(median));
+
+		return new LatencyDistribution() {
+			@Override
+			public long nextNanos(Random random) {
+				return (long)Math.exp(mu + sigma * random.nextGaussian());
+			}
+
+			@Override
+			public String toString() {
+				return "logNormal(" + (long)Math.exp(mu) + "ns, " + sigma + ")";
+			}
+		};
+	}
+}
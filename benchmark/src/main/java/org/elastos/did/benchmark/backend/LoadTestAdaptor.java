@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.backend;
+
+import org.elastos.did.DIDException;
+import org.elastos.did.backend.DIDAdaptor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A DIDAdaptor decorator that makes the delegate behave like a slow,
+ * unreliable ID chain: it adds latency drawn from a distribution, fails
+ * a fraction of calls and caps the call rate, per operation. Calls can be
+ * recorded with their timing and payload size for offline analysis; only
+ * the most recent maxRecords are kept, so a long run stays bounded.
+ *
+ * Stack a MeteredAdaptor on top for percentiles over the whole run.
+ */
+public class LoadTestAdaptor implements DIDAdaptor {
+	public static final int DEFAULT_MAX_RECORDS = 1000000;
+
+	private final DIDAdaptor adaptor;
+	private final Operation transaction;
+	private final Operation resolve;
+	private final Random random;
+	private final ArrayDeque<CallRecord> records;
+	private final int maxRecords;
+	private long dropped;
+
+	public enum Kind {
+		CREATE_ID_TRANSACTION, RESOLVE
+	}
+
+	public enum Outcome {
+		SUCCESS, REJECTED, NOT_FOUND, INJECTED_ERROR, ERROR
+	}
+
+	public static class CallRecord {
+		private final Kind kind;
+		private final long start;
+		private final long latency;
+		private final long injectedLatency;
+		private final int size;
+		private final Outcome outcome;
+
+		private CallRecord(Kind kind, long start, long latency,
+				long injectedLatency, int size, Outcome outcome) {
+			this.kind = kind;
+			this.start = start;
+			this.latency = latency;
+			this.injectedLatency = injectedLatency;
+			this.size = size;
+			this.outcome = outcome;
+		}
+
+		public Kind getKind() {
+			return kind;
+		}
+
+		// System.nanoTime() when the call came in.
+		public long getStart() {
+			return start;
+		}
+
+		// Total nanoseconds, including rate limiting and injected latency.
+		public long getLatency() {
+			return latency;
+		}
+
+		public long getInjectedLatency() {
+			return injectedLatency;
+		}
+
+		// Payload (transactions) or document (resolve) size in characters.
+		public int getSize() {
+			return size;
+		}
+
+		public Outcome getOutcome() {
+			return outcome;
+		}
+	}
+
+	private static class Operation {
+		private final LatencyDistribution latency;
+		private final double errorRate;
+		private final long interval;
+		private long nextSlot;
+
+		private Operation(LatencyDistribution latency, double errorRate, double maxPerSecond) {
+			this.latency = latency;
+			this.errorRate = errorRate;
+			this.interval = maxPerSecond > 0 ? (long)(1e9 / maxPerSecond) : 0;
+		}
+
+		// Reserve the next free slot under the rate cap.
+		private synchronized long reserve(long now) {
+			if (interval == 0)
+				return now;
+
+			long slot = Math.max(now, nextSlot);
+			nextSlot = slot + interval;
+			return slot;
+		}
+	}
+
+	public static class Builder {
+		private final DIDAdaptor adaptor;
+		private LatencyDistribution transactionLatency = LatencyDistribution.NONE;
+		private LatencyDistribution resolveLatency = LatencyDistribution.NONE;
+		private double transactionErrorRate;
+		private double resolveErrorRate;
+		private double maxTransactionsPerSecond;
+		private double maxResolvesPerSecond;
+		private long seed = System.nanoTime();
+		private int maxRecords;
+
+		public Builder(DIDAdaptor adaptor) {
+			if (adaptor == null)
+				throw new IllegalArgumentException();
+
+			this.adaptor = adaptor;
+		}
+
+		public Builder transactionLatency(LatencyDistribution latency) {
+			this.transactionLatency = latency;
+			return this;
+		}
+
+		public Builder resolveLatency(LatencyDistribution latency) {
+			this.resolveLatency = latency;
+			return this;
+		}
+
+		public Builder transactionErrorRate(double rate) {
+			if (rate < 0 || rate > 1)
+				throw new IllegalArgumentException();
+
+			this.transactionErrorRate = rate;
+			return this;
+		}
+
+		public Builder resolveErrorRate(double rate) {
+			if (rate < 0 || rate > 1)
+				throw new IllegalArgumentException();
+
+			this.resolveErrorRate = rate;
+			return this;
+		}
+
+		// 0 means no cap.
+		public Builder maxTransactionsPerSecond(double max) {
+			this.maxTransactionsPerSecond = max;
+			return this;
+		}
+
+		public Builder maxResolvesPerSecond(double max) {
+			this.maxResolvesPerSecond = max;
+			return this;
+		}
+
+		public Builder seed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		public Builder record(boolean record) {
+			return record(record ? DEFAULT_MAX_RECORDS : 0);
+		}
+
+		// Keep the last maxRecords calls; 0 records nothing.
+		public Builder record(int maxRecords) {
+			if (maxRecords < 0)
+				throw new IllegalArgumentException();
+
+			this.maxRecords = maxRecords;
+			return this;
+		}
+
+		public LoadTestAdaptor build() {
+			return new LoadTestAdaptor(this);
+		}
+	}
+
+	private LoadTestAdaptor(Builder builder) {
+		this.adaptor = builder.adaptor;
+		this.transaction = new Operation(builder.transactionLatency,
+				builder.transactionErrorRate, builder.maxTransactionsPerSecond);
+		this.resolve = new Operation(builder.resolveLatency,
+				builder.resolveErrorRate, builder.maxResolvesPerSecond);
+		this.random = new Random(builder.seed);
+		this.maxRecords = builder.maxRecords;
+		this.records = maxRecords > 0
+				? new ArrayDeque<CallRecord>(Math.min(maxRecords, 1024)) : null;
+	}
+
+	@Override
+	public boolean createIdTransaction(String payload, String memo)
+			throws DIDException {
+		long start = System.nanoTime();
+		long injected = delay(transaction, start);
+		int size = payload != null ? payload.length() : 0;
+
+		if (fail(transaction)) {
+			record(Kind.CREATE_ID_TRANSACTION, start, injected, size, Outcome.INJECTED_ERROR);
+			throw new DIDException("Injected ID transaction failure.");
+		}
+
+		try {
+			boolean success = adaptor.createIdTransaction(payload, memo);
+			record(Kind.CREATE_ID_TRANSACTION, start, injected, size,
+					success ? Outcome.SUCCESS : Outcome.REJECTED);
+			return success;
+		} catch (DIDException | RuntimeException e) {
+			record(Kind.CREATE_ID_TRANSACTION, start, injected, size, Outcome.ERROR);
+			throw e;
+		}
+	}
+
+	@Override
+	public String resolve(String did) throws DIDException {
+		long start = System.nanoTime();
+		long injected = delay(resolve, start);
+
+		if (fail(resolve)) {
+			record(Kind.RESOLVE, start, injected, 0, Outcome.INJECTED_ERROR);
+			throw new DIDException("Injected resolve failure.");
+		}
+
+		try {
+			String doc = adaptor.resolve(did);
+			record(Kind.RESOLVE, start, injected, doc != null ? doc.length() : 0,
+					doc != null ? Outcome.SUCCESS : Outcome.NOT_FOUND);
+			return doc;
+		} catch (DIDException | RuntimeException e) {
+			record(Kind.RESOLVE, start, injected, 0, Outcome.ERROR);
+			throw e;
+		}
+	}
+
+	public List<CallRecord> getRecords() {
+		if (records == null)
+			return new ArrayList<CallRecord>();
+
+		synchronized (records) {
+			return new ArrayList<CallRecord>(records);
+		}
+	}
+
+	public void clearRecords() {
+		if (records == null)
+			return;
+
+		synchronized (records) {
+			records.clear();
+			dropped = 0;
+		}
+	}
+
+	// Calls evicted from the records to stay within maxRecords.
+	public long getDroppedRecords() {
+		if (records == null)
+			return 0;
+
+		synchronized (records) {
+			return dropped;
+		}
+	}
+
+	// One line per kept call; times in nanoseconds relative to the earliest.
+	public void writeCsv(Writer out) throws IOException {
+		List<CallRecord> calls = getRecords();
+		long base = calls.isEmpty() ? 0 : calls.get(0).start;
+		for (CallRecord call : calls)
+			base = Math.min(base, call.start);
+
+		out.write("operation,start_ns,latency_ns,injected_ns,size,outcome\n");
+		for (CallRecord call : calls) {
+			out.write(call.kind.name().toLowerCase() + "," + (call.start - base) + ","
+					+ call.latency + "," + call.injectedLatency + ","
+					+ call.size + "," + call.outcome.name().toLowerCase() + "\n");
+		}
+
+		out.flush();
+	}
+
+	// Wait for a rate slot plus the simulated latency; returns the latter.
+	private long delay(Operation op, long now) throws DIDException {
+		long latency;
+		synchronized (random) {
+			latency = Math.max(0, op.latency.nextNanos(random));
+		}
+
+		long deadline = op.reserve(now) + latency;
+		long remaining;
+		while ((remaining = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(remaining);
+			if (Thread.interrupted()) {
+				Thread.currentThread().interrupt();
+				throw new DIDException("Interrupted during simulated latency.");
+			}
+		}
+
+		return latency;
+	}
+
+	private boolean fail(Operation op) {
+		if (op.errorRate == 0)
+			return false;
+
+		synchronized (random) {
+			return random.nextDouble() < op.errorRate;
+		}
+	}
+
+	private void record(Kind kind, long start, long injected, int size, Outcome outcome) {
+		if (records == null)
+			return;
+
+		CallRecord call = new CallRecord(kind, start, System.nanoTime() - start,
+				injected, size, outcome);
+		synchronized (records) {
+			if (records.size() == maxRecords) {
+				records.removeFirst();
+				dropped++;
+			}
+
+			records.addLast(call);
+		}
+	}
+}
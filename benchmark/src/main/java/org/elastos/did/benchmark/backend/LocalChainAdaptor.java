@@ -0,0 +1,570 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.backend;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.elastos.did.DIDException;
+import org.elastos.did.MalformedDocumentException;
+import org.elastos.did.benchmark.util.Base64InputStream;
+import org.elastos.did.util.Base64;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-process stand-in for the ID chain, so publish and resolve can be
+ * exercised end to end without a node.
+ *
+ * Submitted ID transactions are checked for a header operation and a
+ * base64url document payload, then wait in a mempool until the next block
+ * is sealed. Blocks are produced every block interval, or immediately for
+ * each submission when the interval is 0, and hold at most maxBlockSize
+ * transactions. When sealing, create is rejected for a DID that already
+ * exists, and update or deactivate for one that is missing or deactivated.
+ * Each block is appended to a journal in the data directory and fsynced
+ * before its transactions become visible to resolve; if that fails, the
+ * block is dropped and its transactions fail. The journal is replayed
+ * when the adaptor is opened again.
+ *
+ * Signatures and previous transaction ids are not checked.
+ */
+public class LocalChainAdaptor implements BulkDIDAdaptor, Closeable {
+	public static final String JOURNAL = "chain.log";
+
+	private static final int FLAGS = Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP;
+
+	private final int maxBlockSize;
+	private final boolean waitForConfirmation;
+	private final ObjectMapper mapper;
+	private final ScheduledExecutorService timer;
+	private final Object sealLock = new Object();
+
+	private final FileOutputStream journal;
+
+	private final Map<String, Transaction> latest;
+	private final Map<String, List<Transaction>> history;
+	private List<Pending> mempool;
+	private long height;
+	private long rejected;
+	private boolean closed;
+
+	public static class Transaction {
+		private final String did;
+		private final String operation;
+		private final String document;
+		private final String payload;
+		private final String memo;
+		private long block;
+		private long timestamp;
+
+		private Transaction(String did, String operation, String document,
+				String payload, String memo) {
+			this.did = did;
+			this.operation = operation;
+			this.document = document;
+			this.payload = payload;
+			this.memo = memo;
+		}
+
+		public String getDid() {
+			return did;
+		}
+
+		// create, update or deactivate.
+		public String getOperation() {
+			return operation;
+		}
+
+		// The decoded document JSON, null for a bare deactivate.
+		public String getDocument() {
+			return document;
+		}
+
+		public String getMemo() {
+			return memo;
+		}
+
+		public long getBlock() {
+			return block;
+		}
+
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		private boolean isDeactivate() {
+			return operation.equals("deactivate");
+		}
+	}
+
+	private static class Pending {
+		private final Transaction tx;
+		private final CountDownLatch done = new CountDownLatch(1);
+		private TransactionResult result;
+
+		private Pending(Transaction tx) {
+			this.tx = tx;
+		}
+
+		private void complete(TransactionResult result) {
+			this.result = result;
+			done.countDown();
+		}
+	}
+
+	/**
+	 * A chain that seals a block for every submission.
+	 */
+	public LocalChainAdaptor(File dir) throws DIDException {
+		this(dir, 0, TimeUnit.MILLISECONDS, Integer.MAX_VALUE, true);
+	}
+
+	/**
+	 * @param blockInterval time between blocks, 0 to seal on submission
+	 * @param maxBlockSize transactions per block, the rest wait for the next
+	 * @param waitForConfirmation whether createIdTransaction blocks until the
+	 *        transaction is sealed and returns whether it was accepted, or
+	 *        returns true as soon as it is in the mempool
+	 */
+	public LocalChainAdaptor(File dir, long blockInterval, TimeUnit unit,
+			int maxBlockSize, boolean waitForConfirmation) throws DIDException {
+		if (dir == null || blockInterval < 0 || maxBlockSize <= 0)
+			throw new IllegalArgumentException();
+
+		this.maxBlockSize = maxBlockSize;
+		this.waitForConfirmation = waitForConfirmation;
+		this.mapper = new ObjectMapper();
+		this.latest = new HashMap<String, Transaction>();
+		this.history = new HashMap<String, List<Transaction>>();
+		this.mempool = new ArrayList<Pending>();
+
+		if (!dir.isDirectory() && !dir.mkdirs())
+			throw new DIDException("Can not create chain directory " + dir);
+
+		File file = new File(dir, JOURNAL);
+		try {
+			if (file.exists()) {
+				replay(file);
+				terminate(file);
+			}
+
+			journal = new FileOutputStream(file, true);
+		} catch (IOException e) {
+			throw new DIDException("Can not open chain journal " + file, e);
+		}
+
+		if (blockInterval > 0) {
+			long interval = unit.toNanos(blockInterval);
+			timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "did-chain-block");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			timer.scheduleAtFixedRate(new Runnable() {
+				@Override
+				public void run() {
+					seal();
+				}
+			}, interval, interval, TimeUnit.NANOSECONDS);
+		} else {
+			timer = null;
+		}
+	}
+
+	@Override
+	public boolean createIdTransaction(String payload, String memo)
+			throws DIDException {
+		Pending p = new Pending(parse(payload, memo));
+		submit(Collections.singletonList(p));
+
+		if (!waitForConfirmation)
+			return true;
+
+		TransactionResult result = await(p);
+		if (result.getError() != null)
+			throw result.getError();
+
+		return result.isSuccess();
+	}
+
+	/**
+	 * Submits the transactions together, so they land in the same block
+	 * when it has room for them.
+	 */
+	@Override
+	public List<TransactionResult> createIdTransactions(List<IdTransaction> transactions)
+			throws DIDException {
+		List<TransactionResult> results = new ArrayList<TransactionResult>(transactions.size());
+		List<Pending> batch = new ArrayList<Pending>(transactions.size());
+		List<Pending> slots = new ArrayList<Pending>(transactions.size());
+
+		for (IdTransaction tx : transactions) {
+			try {
+				Pending p = new Pending(parse(tx.getPayload(), tx.getMemo()));
+				batch.add(p);
+				slots.add(p);
+				results.add(null);
+			} catch (DIDException e) {
+				slots.add(null);
+				results.add(TransactionResult.failed(e));
+			}
+		}
+
+		submit(batch);
+
+		for (int i = 0; i < slots.size(); i++) {
+			Pending p = slots.get(i);
+			if (p != null)
+				results.set(i, waitForConfirmation ? await(p) : TransactionResult.of(true));
+		}
+
+		return results;
+	}
+
+	@Override
+	public synchronized String resolve(String did) throws DIDException {
+		Transaction tx = latest.get(did);
+		return tx != null && !tx.isDeactivate() ? tx.document : null;
+	}
+
+	public synchronized boolean isDeactivated(String did) {
+		Transaction tx = latest.get(did);
+		return tx != null && tx.isDeactivate();
+	}
+
+	public synchronized List<Transaction> getHistory(String did) {
+		List<Transaction> txs = history.get(did);
+		return txs != null ? new ArrayList<Transaction>(txs)
+				: new ArrayList<Transaction>();
+	}
+
+	public synchronized long getHeight() {
+		return height;
+	}
+
+	public synchronized int getDidCount() {
+		return latest.size();
+	}
+
+	public synchronized long getRejectedCount() {
+		return rejected;
+	}
+
+	public synchronized int getMempoolSize() {
+		return mempool.size();
+	}
+
+	/**
+	 * Seals whatever is still in the mempool and closes the journal.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (timer != null)
+			timer.shutdown();
+
+		synchronized (sealLock) {
+			// Close in the same critical section that sees the mempool
+			// empty, or a late submit() would never be sealed.
+			while (true) {
+				synchronized (this) {
+					if (mempool.isEmpty()) {
+						closed = true;
+						break;
+					}
+				}
+
+				seal();
+			}
+
+			journal.close();
+		}
+	}
+
+	private void submit(List<Pending> batch) throws DIDException {
+		if (batch.isEmpty())
+			return;
+
+		synchronized (this) {
+			if (closed)
+				throw new DIDException("Chain is closed.");
+
+			mempool.addAll(batch);
+		}
+
+		if (timer == null) {
+			while (seal())
+				;
+		}
+	}
+
+	private TransactionResult await(Pending p) throws DIDException {
+		try {
+			p.done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DIDException("Interrupted while waiting for the ID transaction.", e);
+		}
+
+		return p.result;
+	}
+
+	// Seal one block from the head of the mempool; false if it was empty.
+	private boolean seal() {
+		synchronized (sealLock) {
+			List<Pending> block;
+			List<Pending> accepted = new ArrayList<Pending>();
+			long number;
+			long time = System.currentTimeMillis();
+
+			synchronized (this) {
+				if (mempool.isEmpty() || closed)
+					return false;
+
+				if (mempool.size() <= maxBlockSize) {
+					block = mempool;
+					mempool = new ArrayList<Pending>();
+				} else {
+					block = new ArrayList<Pending>(mempool.subList(0, maxBlockSize));
+					mempool = new ArrayList<Pending>(mempool.subList(maxBlockSize, mempool.size()));
+				}
+
+				// Only seal() changes the state, so it can be read here and
+				// published after the sync.
+				number = height + 1;
+				Map<String, Transaction> staged = new HashMap<String, Transaction>();
+				for (Pending p : block) {
+					Transaction last = staged.containsKey(p.tx.did)
+							? staged.get(p.tx.did) : latest.get(p.tx.did);
+					if (isValid(p.tx, last)) {
+						staged.put(p.tx.did, p.tx);
+						accepted.add(p);
+					} else {
+						rejected++;
+					}
+				}
+			}
+
+			DIDException error = null;
+			try {
+				write(accepted, number, time);
+			} catch (IOException e) {
+				error = new DIDException("Can not write block " + number, e);
+			}
+
+			if (error == null) {
+				synchronized (this) {
+					for (Pending p : accepted)
+						publish(p.tx, number, time);
+					height = number;
+				}
+			}
+
+			for (Pending p : block) {
+				if (error != null && accepted.contains(p))
+					p.complete(TransactionResult.failed(error));
+				else
+					p.complete(TransactionResult.of(accepted.contains(p)));
+			}
+
+			return true;
+		}
+	}
+
+	// Append the block and sync; on failure cut the journal back.
+	private void write(List<Pending> accepted, long block, long time) throws IOException {
+		if (accepted.isEmpty())
+			return;
+
+		StringBuilder sb = new StringBuilder();
+		for (Pending p : accepted)
+			sb.append(toJournal(p.tx, block, time));
+
+		FileChannel channel = journal.getChannel();
+		long size = channel.size();
+		try {
+			journal.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+			journal.getFD().sync();
+		} catch (IOException e) {
+			try {
+				channel.truncate(size);
+			} catch (IOException ignore) {
+			}
+			throw e;
+		}
+	}
+
+	// Create needs a new DID, update and deactivate a live one.
+	private static boolean isValid(Transaction tx, Transaction last) {
+		if (tx.operation.equals("create"))
+			return last == null;
+		else
+			return last != null && !last.isDeactivate();
+	}
+
+	private void publish(Transaction tx, long block, long time) {
+		tx.block = block;
+		tx.timestamp = time;
+		latest.put(tx.did, tx);
+
+		List<Transaction> txs = history.get(tx.did);
+		if (txs == null) {
+			txs = new ArrayList<Transaction>(2);
+			history.put(tx.did, txs);
+		}
+		txs.add(tx);
+	}
+
+	private Transaction parse(String payload, String memo) throws DIDException {
+		try {
+			JsonNode tx = mapper.readTree(payload);
+			if (tx == null || !tx.isObject())
+				throw new MalformedDocumentException("ID transaction is not a JSON object.");
+
+			JsonNode header = tx.get("header");
+			JsonNode op = header != null ? header.get("operation") : null;
+			if (op == null)
+				throw new MalformedDocumentException("Missing ID transaction operation.");
+
+			String operation = op.asText().toLowerCase();
+			if (!operation.equals("create") && !operation.equals("update")
+					&& !operation.equals("deactivate"))
+				throw new MalformedDocumentException("Unknown ID transaction operation: "
+						+ op.asText());
+
+			JsonNode data = tx.get("payload");
+			if (data == null || !data.isTextual())
+				throw new MalformedDocumentException("Missing ID transaction payload.");
+
+			JsonNode doc;
+			try {
+				doc = mapper.readTree(new Base64InputStream(data.asText(), FLAGS));
+			} catch (JsonProcessingException e) {
+				// Deactivate may carry just the DID instead of a document.
+				if (!operation.equals("deactivate"))
+					throw e;
+
+				String did = new String(Base64.decode(data.asText(), FLAGS),
+						StandardCharsets.UTF_8).trim();
+				return new Transaction(did, operation, null, payload, memo);
+			}
+
+			JsonNode id = doc != null ? doc.get("id") : null;
+			if (id == null || id.asText().isEmpty())
+				throw new MalformedDocumentException("Missing document id.");
+
+			return new Transaction(id.asText(), operation,
+					mapper.writeValueAsString(doc), payload, memo);
+		} catch (IOException | IllegalArgumentException e) {
+			throw new MalformedDocumentException("Parse ID transaction error.", e);
+		}
+	}
+
+	// Make sure a torn last line does not swallow the next block.
+	private void terminate(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			long length = raf.length();
+			if (length == 0)
+				return;
+
+			raf.seek(length - 1);
+			if (raf.read() != '\n')
+				raf.write('\n');
+		} finally {
+			raf.close();
+		}
+	}
+
+	private String toJournal(Transaction tx, long block, long time) throws IOException {
+		ObjectNode node = mapper.createObjectNode();
+		node.put("block", block);
+		node.put("time", time);
+		node.put("payload", tx.payload);
+		if (tx.memo != null)
+			node.put("memo", tx.memo);
+
+		return mapper.writeValueAsString(node) + "\n";
+	}
+
+	// Rebuild the state; torn or unparsable lines are skipped.
+	private void replay(File file) throws IOException {
+		BufferedReader in = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file), StandardCharsets.UTF_8));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				JsonNode node;
+				try {
+					node = mapper.readTree(line);
+				} catch (IOException e) {
+					continue;
+				}
+
+				if (node == null || !node.path("payload").isTextual()
+						|| !node.path("block").isNumber() || !node.path("time").isNumber())
+					continue;
+
+				JsonNode memo = node.get("memo");
+				Transaction tx;
+				try {
+					tx = parse(node.get("payload").asText(),
+							memo != null ? memo.asText() : null);
+				} catch (DIDException e) {
+					continue;
+				}
+
+				long block = node.get("block").asLong();
+				if (isValid(tx, latest.get(tx.did)))
+					publish(tx, block, node.get("time").asLong());
+				height = Math.max(height, block);
+			}
+		} finally {
+			in.close();
+		}
+	}
+}
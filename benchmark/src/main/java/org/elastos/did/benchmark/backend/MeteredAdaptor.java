@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.backend;
+
+import org.elastos.did.DIDException;
+import org.elastos.did.backend.DIDAdaptor;
+import org.elastos.did.benchmark.metrics.Metrics;
+import org.elastos.did.benchmark.metrics.MetricsRegistry;
+
+/**
+ * A DIDAdaptor decorator that reports every call to the installed
+ * MetricsRegistry: latency in nanoseconds, payload and document sizes in
+ * characters, and counts of errors, rejected transactions and unknown
+ * DIDs.
+ */
+public class MeteredAdaptor implements DIDAdaptor {
+	private final DIDAdaptor adaptor;
+
+	private final String txLatency;
+	private final String txSize;
+	private final String txRejected;
+	private final String txErrors;
+	private final String resolveLatency;
+	private final String resolveSize;
+	private final String resolveNotFound;
+	private final String resolveErrors;
+
+	public MeteredAdaptor(DIDAdaptor adaptor, String prefix) {
+		if (adaptor == null || prefix == null)
+			throw new IllegalArgumentException();
+
+		this.adaptor = adaptor;
+
+		txLatency = prefix + ".createIdTransaction.latency";
+		txSize = prefix + ".createIdTransaction.size";
+		txRejected = prefix + ".createIdTransaction.rejected";
+		txErrors = prefix + ".createIdTransaction.errors";
+		resolveLatency = prefix + ".resolve.latency";
+		resolveSize = prefix + ".resolve.size";
+		resolveNotFound = prefix + ".resolve.notfound";
+		resolveErrors = prefix + ".resolve.errors";
+	}
+
+	public MeteredAdaptor(DIDAdaptor adaptor) {
+		this(adaptor, "adaptor");
+	}
+
+	@Override
+	public boolean createIdTransaction(String payload, String memo)
+			throws DIDException {
+		MetricsRegistry metrics = Metrics.registry();
+		if (!metrics.isEnabled())
+			return adaptor.createIdTransaction(payload, memo);
+
+		metrics.histogram(txSize).record(payload != null ? payload.length() : 0);
+
+		long start = System.nanoTime();
+		try {
+			boolean success = adaptor.createIdTransaction(payload, memo);
+			if (!success)
+				metrics.counter(txRejected).increment();
+
+			return success;
+		} catch (DIDException | RuntimeException e) {
+			metrics.counter(txErrors).increment();
+			throw e;
+		} finally {
+			metrics.histogram(txLatency).record(System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public String resolve(String did) throws DIDException {
+		MetricsRegistry metrics = Metrics.registry();
+		if (!metrics.isEnabled())
+			return adaptor.resolve(did);
+
+		long start = System.nanoTime();
+		try {
+			String doc = adaptor.resolve(did);
+			if (doc != null)
+				metrics.histogram(resolveSize).record(doc.length());
+			else
+				metrics.counter(resolveNotFound).increment();
+
+			return doc;
+		} catch (DIDException | RuntimeException e) {
+			metrics.counter(resolveErrors).increment();
+			throw e;
+		} finally {
+			metrics.histogram(resolveLatency).record(System.nanoTime() - start);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.backend;
+
+import org.elastos.did.DIDException;
+
+public class TransactionResult {
+	private static final TransactionResult SUCCESS = new TransactionResult(true, null);
+	private static final TransactionResult REJECTED = new TransactionResult(false, null);
+
+	private final boolean success;
+	private final DIDException error;
+
+	private TransactionResult(boolean success, DIDException error) {
+		this.success = success;
+		this.error = error;
+	}
+
+	public static TransactionResult of(boolean success) {
+		return success ? SUCCESS : REJECTED;
+	}
+
+	public static TransactionResult failed(DIDException error) {
+		return new TransactionResult(false, error);
+	}
+
+	public boolean isSuccess() {
+		return success;
+	}
+
+	public DIDException getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return success ? "success" : (error != null ? "error: " + error.getMessage() : "rejected");
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.credential;
+
+import org.elastos.credential.Issuer;
+import org.elastos.credential.VerifiableCredential;
+import org.elastos.did.DID;
+import org.elastos.did.DIDException;
+import org.elastos.did.DIDStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Issues credentials for many subjects from one issuer, signing in
+ * parallel.
+ *
+ * The templates are split into one chunk per worker, and every chunk
+ * uses its own Issuer instance, so no Issuer is shared between threads.
+ */
+public class BulkIssuer {
+	private final DID issuer;
+	private final ExecutorService executor;
+	private final int parallelism;
+
+	/**
+	 * What to issue for one subject. The type is required; the expiration
+	 * date and properties are left to the SDK's defaults unless set.
+	 */
+	public static class Template {
+		private final DID subject;
+		private final String id;
+		private String[] types;
+		private Date expirationDate;
+		private Map<String, String> properties;
+		private String alias;
+
+		public Template(DID subject, String id) {
+			if (subject == null || id == null)
+				throw new IllegalArgumentException();
+
+			this.subject = subject;
+			this.id = id;
+		}
+
+		public Template type(String... types) {
+			if (types == null || types.length == 0)
+				throw new IllegalArgumentException();
+
+			this.types = types;
+			return this;
+		}
+
+		public Template expirationDate(Date expirationDate) {
+			if (expirationDate == null)
+				throw new IllegalArgumentException();
+
+			this.expirationDate = expirationDate;
+			return this;
+		}
+
+		public Template properties(Map<String, String> properties) {
+			if (properties == null)
+				throw new IllegalArgumentException();
+
+			this.properties = properties;
+			return this;
+		}
+
+		// Alias the credential gets when the results are stored.
+		public Template alias(String alias) {
+			this.alias = alias;
+			return this;
+		}
+
+		public DID getSubject() {
+			return subject;
+		}
+
+		private VerifiableCredential sign(Issuer issuer, String passphrase)
+				throws DIDException {
+			Issuer.CredentialBuilder cb = issuer.issueFor(subject)
+					.id(id)
+					.type(types);
+			if (expirationDate != null)
+				cb.expirationDate(expirationDate);
+			if (properties != null)
+				cb.properties(properties);
+
+			return cb.sign(passphrase);
+		}
+	}
+
+	public BulkIssuer(DID issuer, ExecutorService executor, int parallelism) {
+		if (issuer == null || executor == null || parallelism <= 0)
+			throw new IllegalArgumentException();
+
+		this.issuer = issuer;
+		this.executor = executor;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Issue a credential for every template, in iteration order. Fails
+	 * with the first error hit; credentials already signed are dropped.
+	 */
+	public List<VerifiableCredential> issueAll(Collection<Template> templates,
+			final String passphrase) throws DIDException {
+		final List<Template> all = new ArrayList<Template>(templates);
+		for (Template template : all) {
+			if (template.types == null)
+				throw new IllegalArgumentException("No type for credential "
+						+ template.id + " of " + template.subject);
+		}
+
+		int chunks = Math.max(1, Math.min(parallelism, all.size()));
+		int chunkSize = (all.size() + chunks - 1) / chunks;
+
+		List<Future<VerifiableCredential[]>> futures =
+				new ArrayList<Future<VerifiableCredential[]>>(chunks);
+
+		for (int start = 0; start < all.size(); start += chunkSize) {
+			final int from = start;
+			final int to = Math.min(start + chunkSize, all.size());
+
+			futures.add(executor.submit(new Callable<VerifiableCredential[]>() {
+				@Override
+				public VerifiableCredential[] call() throws DIDException {
+					Issuer signer = new Issuer(issuer);
+					VerifiableCredential[] vcs = new VerifiableCredential[to - from];
+					for (int i = from; i < to; i++)
+						vcs[i - from] = all.get(i).sign(signer, passphrase);
+
+					return vcs;
+				}
+			}));
+		}
+
+		List<VerifiableCredential> results = new ArrayList<VerifiableCredential>(all.size());
+		try {
+			for (Future<VerifiableCredential[]> future : futures)
+				results.addAll(Arrays.asList(future.get()));
+		} catch (ExecutionException e) {
+			for (Future<VerifiableCredential[]> future : futures)
+				future.cancel(true);
+
+			Throwable cause = e.getCause();
+			if (cause instanceof DIDException)
+				throw (DIDException)cause;
+
+			throw new DIDException("Issue credential failed.", cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DIDException("Interrupted while issuing credentials.", e);
+		}
+
+		return results;
+	}
+
+	/**
+	 * Issue every credential, then store them in one pass on the calling
+	 * thread, each under its template's alias.
+	 */
+	public List<VerifiableCredential> issueAll(Collection<Template> templates,
+			String passphrase, DIDStore store) throws DIDException {
+		List<VerifiableCredential> vcs = issueAll(templates, passphrase);
+
+		int i = 0;
+		for (Template template : templates) {
+			VerifiableCredential vc = vcs.get(i++);
+			if (template.alias != null)
+				store.storeCredential(vc, template.alias);
+			else
+				store.storeCredential(vc);
+		}
+
+		return vcs;
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.credential;
+
+import org.elastos.credential.Issuer;
+import org.elastos.credential.VerifiableCredential;
+import org.elastos.did.DID;
+import org.elastos.did.DIDException;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The basic profile credential the benchmarks and the scenario runner
+ * issue, shaped like the ones in DIDStoreTest.
+ */
+public final class SampleCredentials {
+	private SampleCredentials() {
+	}
+
+	public static VerifiableCredential profile(Issuer issuer, DID did, String id,
+			String passphrase) throws DIDException {
+		return issuer.issueFor(did)
+				.id(id)
+				.type(new String[] { "BasicProfileCredential" })
+				.expirationDate(expiration())
+				.properties(properties(did))
+				.sign(passphrase);
+	}
+
+	// The same credential, for BulkIssuer.
+	public static BulkIssuer.Template profileTemplate(DID did, String id) {
+		return new BulkIssuer.Template(did, id)
+				.type("BasicProfileCredential")
+				.expirationDate(expiration())
+				.properties(properties(did));
+	}
+
+	private static Map<String, String> properties(DID did) {
+		Map<String, String> props = new HashMap<String, String>();
+		props.put("name", "Elastos-" + did.getMethodSpecificId());
+		props.put("email", "contact@elastos.org");
+		props.put("website", "https://www.elastos.org/");
+		props.put("phone", did.getMethodSpecificId());
+		return props;
+	}
+
+	// A year from now.
+	private static Date expiration() {
+		Calendar cal = Calendar.getInstance();
+		cal.set(Calendar.YEAR, cal.get(Calendar.YEAR) + 1);
+		return cal.getTime();
+	}
+}
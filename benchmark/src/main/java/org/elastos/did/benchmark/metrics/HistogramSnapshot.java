@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.metrics;
+
+public class HistogramSnapshot {
+	private final long count;
+	private final long min;
+	private final long max;
+	private final double mean;
+	private final long p50;
+	private final long p99;
+	private final long p999;
+
+	HistogramSnapshot(long count, long min, long max, double mean,
+			long p50, long p99, long p999) {
+		this.count = count;
+		this.min = min;
+		this.max = max;
+		this.mean = mean;
+		this.p50 = p50;
+		this.p99 = p99;
+		this.p999 = p999;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getMin() {
+		return min;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+	public long getP50() {
+		return p50;
+	}
+
+	public long getP99() {
+		return p99;
+	}
+
+	public long getP999() {
+		return p999;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d min=%d p50=%d p99=%d p999=%d max=%d mean=%.1f",
+				count, min, p50, p99, p999, max, mean);
+	}
+}
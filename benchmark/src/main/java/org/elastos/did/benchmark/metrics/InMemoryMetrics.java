@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps every instrument in memory and can dump a snapshot of all of
+ * them, as text or JSON.
+ */
+public class InMemoryMetrics implements MetricsRegistry {
+	private final ConcurrentHashMap<String, AdderCounter> counters =
+			new ConcurrentHashMap<String, AdderCounter>();
+	private final ConcurrentHashMap<String, LogHistogram> histograms =
+			new ConcurrentHashMap<String, LogHistogram>();
+
+	private static class AdderCounter implements Counter {
+		private final LongAdder value = new LongAdder();
+
+		@Override
+		public void increment() {
+			value.increment();
+		}
+
+		@Override
+		public void add(long n) {
+			value.add(n);
+		}
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return true;
+	}
+
+	@Override
+	public Counter counter(String name) {
+		AdderCounter counter = counters.get(name);
+		if (counter == null) {
+			AdderCounter created = new AdderCounter();
+			counter = counters.putIfAbsent(name, created);
+			if (counter == null)
+				counter = created;
+		}
+
+		return counter;
+	}
+
+	@Override
+	public Histogram histogram(String name) {
+		LogHistogram histogram = histograms.get(name);
+		if (histogram == null) {
+			LogHistogram created = new LogHistogram();
+			histogram = histograms.putIfAbsent(name, created);
+			if (histogram == null)
+				histogram = created;
+		}
+
+		return histogram;
+	}
+
+	public Map<String, Long> getCounters() {
+		Map<String, Long> values = new TreeMap<String, Long>();
+		for (Map.Entry<String, AdderCounter> entry : counters.entrySet())
+			values.put(entry.getKey(), entry.getValue().value.sum());
+
+		return values;
+	}
+
+	public Map<String, HistogramSnapshot> getHistograms() {
+		Map<String, HistogramSnapshot> values = new TreeMap<String, HistogramSnapshot>();
+		for (Map.Entry<String, LogHistogram> entry : histograms.entrySet())
+			values.put(entry.getKey(), entry.getValue().snapshot());
+
+		return values;
+	}
+
+	public void reset() {
+		counters.clear();
+		histograms.clear();
+	}
+
+	public ObjectNode toJson(ObjectMapper mapper) {
+		ObjectNode root = mapper.createObjectNode();
+
+		ObjectNode counterNode = root.putObject("counters");
+		for (Map.Entry<String, Long> entry : getCounters().entrySet())
+			counterNode.put(entry.getKey(), entry.getValue());
+
+		ObjectNode histogramNode = root.putObject("histograms");
+		for (Map.Entry<String, HistogramSnapshot> entry : getHistograms().entrySet()) {
+			HistogramSnapshot h = entry.getValue();
+			ObjectNode node = histogramNode.putObject(entry.getKey());
+			node.put("count", h.getCount());
+			node.put("min", h.getMin());
+			node.put("p50", h.getP50());
+			node.put("p99", h.getP99());
+			node.put("p999", h.getP999());
+			node.put("max", h.getMax());
+			node.put("mean", h.getMean());
+		}
+
+		return root;
+	}
+
+	public void writeJson(OutputStream out) throws IOException {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.writerWithDefaultPrettyPrinter().writeValue(out, toJson(mapper));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, Long> entry : getCounters().entrySet())
+			sb.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+
+		for (Map.Entry<String, HistogramSnapshot> entry : getHistograms().entrySet())
+			sb.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+
+		return sb.toString();
+	}
+}
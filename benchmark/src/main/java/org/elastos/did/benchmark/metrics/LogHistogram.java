@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram with log-linear buckets: values below 16 are
+ * exact, larger ones fall into one of 16 sub-buckets per power of two,
+ * so reported percentiles are within 1/16 of the true value.
+ */
+public class LogHistogram implements Histogram {
+	private static final int SUB_BITS = 4;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+	@Override
+	public void record(long value) {
+		if (value < 0)
+			value = 0;
+
+		counts.incrementAndGet(index(value));
+		count.increment();
+		sum.add(value);
+
+		long m;
+		while (value < (m = min.get()) && !min.compareAndSet(m, value))
+			;
+		while (value > (m = max.get()) && !max.compareAndSet(m, value))
+			;
+	}
+
+	static int index(long value) {
+		if (value < SUB_COUNT)
+			return (int)value;
+
+		int exp = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int)(value >>> (exp - SUB_BITS)) & (SUB_COUNT - 1);
+		return (exp - SUB_BITS + 1) * SUB_COUNT + sub;
+	}
+
+	// Largest value that falls into the bucket.
+	static long upperBound(int index) {
+		if (index < SUB_COUNT)
+			return index;
+
+		int exp = index / SUB_COUNT + SUB_BITS - 1;
+		long sub = index % SUB_COUNT;
+		long lower = (SUB_COUNT + sub) << (exp - SUB_BITS);
+		return lower + (1L << (exp - SUB_BITS)) - 1;
+	}
+
+	public HistogramSnapshot snapshot() {
+		long[] copy = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			copy[i] = counts.get(i);
+			total += copy[i];
+		}
+
+		if (total == 0)
+			return new HistogramSnapshot(0, 0, 0, 0, 0, 0, 0);
+
+		long lo = min.get();
+		long hi = max.get();
+		return new HistogramSnapshot(total, lo, hi,
+				(double)sum.sum() / count.sum(),
+				percentile(copy, total, 0.5, lo, hi),
+				percentile(copy, total, 0.99, lo, hi),
+				percentile(copy, total, 0.999, lo, hi));
+	}
+
+	private static long percentile(long[] counts, long total, double q,
+			long lo, long hi) {
+		long rank = (long)Math.ceil(q * total);
+		long seen = 0;
+
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank)
+				return Math.max(lo, Math.min(hi, upperBound(i)));
+		}
+
+		return hi;
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.metrics;
+
+/**
+ * The default registry: every instrument is a shared no-op.
+ */
+public final class NoopMetrics implements MetricsRegistry {
+	public static final NoopMetrics INSTANCE = new NoopMetrics();
+
+	private static final Counter COUNTER = new Counter() {
+		@Override
+		public void increment() {
+		}
+
+		@Override
+		public void add(long n) {
+		}
+	};
+
+	private static final Histogram HISTOGRAM = new Histogram() {
+		@Override
+		public void record(long value) {
+		}
+	};
+
+	private NoopMetrics() {
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return false;
+	}
+
+	@Override
+	public Counter counter(String name) {
+		return COUNTER;
+	}
+
+	@Override
+	public Histogram histogram(String name) {
+		return HISTOGRAM;
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.scenario;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Command line options of the ScenarioRunner, given as --name=value.
+ * Counts accept a k or m suffix, so --dids=250k works.
+ */
+public class ScenarioOptions {
+	public static final List<String> PHASES = Arrays.asList(
+			"create", "publish", "issue", "list", "load", "resolve");
+
+	public static final String USAGE =
+			"Usage: ScenarioRunner [options]\n"
+			+ "  --dids=N            DIDs to create (10k)\n"
+			+ "  --credentials=N     credentials issued per DID (2)\n"
+			+ "  --threads=N         worker threads (available processors)\n"
+			+ "  --store=TYPE        DIDStore backend (filesystem)\n"
+			+ "  --root=DIR          working directory (a new temporary one)\n"
+			+ "  --keep              keep the store and chain afterwards\n"
+			+ "  --backend=NAME      ID chain adaptor: local or null (local)\n"
+			+ "  --block-interval=MS local chain block interval, 0 seals per call (0)\n"
+			+ "  --block-size=N      local chain transactions per block (1000)\n"
+			+ "  --publish-every=N   publish every Nth DID, 0 publishes none (1)\n"
+			+ "  --phases=A,B        any of " + PHASES + ", create always runs (all)\n"
+			+ "  --out=FILE          write the JSON report here instead of stdout\n";
+
+	private int dids = 10000;
+	private int credentials = 2;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private String store = "filesystem";
+	private File root;
+	private boolean keep;
+	private String backend = "local";
+	private long blockInterval;
+	private int blockSize = 1000;
+	private int publishEvery = 1;
+	private Set<String> phases = new LinkedHashSet<String>(PHASES);
+	private File out;
+
+	public static ScenarioOptions parse(String... args) {
+		ScenarioOptions options = new ScenarioOptions();
+
+		for (String arg : args) {
+			if (!arg.startsWith("--"))
+				throw new IllegalArgumentException("Unexpected argument: " + arg);
+
+			int eq = arg.indexOf('=');
+			String name = eq < 0 ? arg.substring(2) : arg.substring(2, eq);
+			String value = eq < 0 ? null : arg.substring(eq + 1);
+
+			if (name.equals("keep")) {
+				options.keep = true;
+				continue;
+			}
+
+			if (value == null || value.isEmpty())
+				throw new IllegalArgumentException("Missing value for --" + name);
+
+			if (name.equals("dids"))
+				options.dids = count(name, value, 1);
+			else if (name.equals("credentials"))
+				options.credentials = count(name, value, 0);
+			else if (name.equals("threads"))
+				options.threads = count(name, value, 1);
+			else if (name.equals("store"))
+				options.store = value;
+			else if (name.equals("root"))
+				options.root = new File(value);
+			else if (name.equals("backend"))
+				options.backend = backend(value);
+			else if (name.equals("block-interval"))
+				options.blockInterval = count(name, value, 0);
+			else if (name.equals("block-size"))
+				options.blockSize = count(name, value, 1);
+			else if (name.equals("publish-every"))
+				options.publishEvery = count(name, value, 0);
+			else if (name.equals("phases"))
+				options.phases = phases(value);
+			else if (name.equals("out"))
+				options.out = new File(value);
+			else
+				throw new IllegalArgumentException("Unknown option: --" + name);
+		}
+
+		return options;
+	}
+
+	private static int count(String name, String value, int min) {
+		String digits = value.toLowerCase();
+		long scale = 1;
+		if (digits.endsWith("k")) {
+			scale = 1000;
+		} else if (digits.endsWith("m")) {
+			scale = 1000000;
+		}
+		if (scale != 1)
+			digits = digits.substring(0, digits.length() - 1);
+
+		long n;
+		try {
+			n = Long.parseLong(digits) * scale;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid number for --" + name + ": " + value);
+		}
+
+		if (n < min || n > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Out of range for --" + name + ": " + value);
+
+		return (int)n;
+	}
+
+	private static String backend(String value) {
+		if (!value.equals("local") && !value.equals("null"))
+			throw new IllegalArgumentException("Unknown backend: " + value);
+
+		return value;
+	}
+
+	private static Set<String> phases(String value) {
+		Set<String> phases = new LinkedHashSet<String>();
+		phases.add("create");
+		for (String phase : value.split(",")) {
+			phase = phase.trim();
+			if (!PHASES.contains(phase))
+				throw new IllegalArgumentException("Unknown phase: " + phase);
+
+			phases.add(phase);
+		}
+
+		return phases;
+	}
+
+	public int getDids() {
+		return dids;
+	}
+
+	public int getCredentials() {
+		return credentials;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public String getStore() {
+		return store;
+	}
+
+	public File getRoot() {
+		return root;
+	}
+
+	public boolean isKeep() {
+		return keep;
+	}
+
+	public String getBackend() {
+		return backend;
+	}
+
+	public long getBlockInterval() {
+		return blockInterval;
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	public int getPublishEvery() {
+		return publishEvery;
+	}
+
+	public boolean runs(String phase) {
+		return phases.contains(phase);
+	}
+
+	public File getOut() {
+		return out;
+	}
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.scenario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.elastos.credential.Issuer;
+import org.elastos.credential.VerifiableCredential;
+import org.elastos.did.DID;
+import org.elastos.did.DIDDocument;
+import org.elastos.did.DIDException;
+import org.elastos.did.DIDStore;
+import org.elastos.did.DIDURL;
+import org.elastos.did.backend.DIDAdaptor;
+import org.elastos.did.backend.DIDBackend;
+import org.elastos.did.benchmark.DiskUsage;
+import org.elastos.did.benchmark.backend.LocalChainAdaptor;
+import org.elastos.did.benchmark.backend.MeteredAdaptor;
+import org.elastos.did.benchmark.backend.NullAdaptor;
+import org.elastos.did.benchmark.credential.SampleCredentials;
+import org.elastos.did.benchmark.metrics.HistogramSnapshot;
+import org.elastos.did.benchmark.metrics.InMemoryMetrics;
+import org.elastos.did.benchmark.metrics.Metrics;
+import org.elastos.did.benchmark.util.FileBatch;
+import org.elastos.did.util.Mnemonic;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Drives the DIDStoreTest flow (create, publish, issue, list, load and
+ * resolve) on a plain JVM at a configurable scale, and reports for every
+ * phase its throughput, latency percentiles, errors and the store's disk
+ * footprint as JSON.
+ *
+ * newDid always runs on a single thread and storeCredential under a lock;
+ * the store gives no guarantee that either is safe to call concurrently.
+ * The report records the threads and any such restriction per phase.
+ *
+ * Listing runs once per phase rather than once per DID, so its latency
+ * shows how the directory scan grows with the store.
+ */
+public class ScenarioRunner {
+	private static final String passphrase = "secret";
+
+	private final ScenarioOptions options;
+	private final ObjectMapper mapper;
+	private final InMemoryMetrics metrics;
+	private final ArrayNode phases;
+	private final Object storeLock = new Object();
+
+	private ExecutorService workers;
+	private File root;
+	private File storeRoot;
+	private File chainRoot;
+	private LocalChainAdaptor chain;
+	private DIDStore store;
+	private DID[] dids;
+	private long errors;
+
+	private interface Task {
+		void run(int index) throws DIDException;
+	}
+
+	public ScenarioRunner(ScenarioOptions options) {
+		this.options = options;
+		this.mapper = new ObjectMapper();
+		this.metrics = new InMemoryMetrics();
+		this.phases = mapper.createArrayNode();
+	}
+
+	public ObjectNode run() throws IOException, DIDException {
+		root = options.getRoot() != null ? options.getRoot()
+				: Files.createTempDirectory("did-scenario").toFile();
+		storeRoot = new File(root, "store");
+		chainRoot = new File(root, "chain");
+
+		// Clean up only what this run creates, never the caller's own files.
+		List<File> created = new ArrayList<File>(2);
+		if (options.getRoot() == null) {
+			created.add(root);
+		} else {
+			if (!storeRoot.exists())
+				created.add(storeRoot);
+			if (!chainRoot.exists())
+				created.add(chainRoot);
+		}
+
+		workers = Executors.newFixedThreadPool(options.getThreads());
+		Metrics.setRegistry(metrics);
+
+		try {
+			setup();
+
+			create();
+			if (options.runs("publish") && options.getPublishEvery() > 0)
+				publish();
+			if (options.runs("issue") && options.getCredentials() > 0)
+				issue();
+			if (options.runs("list"))
+				list();
+			if (options.runs("load"))
+				load();
+			if (options.runs("resolve") && options.runs("publish") && chain != null
+					&& options.getPublishEvery() > 0)
+				resolve();
+
+			return report();
+		} finally {
+			workers.shutdownNow();
+			Metrics.setRegistry(null);
+
+			if (chain != null)
+				chain.close();
+
+			if (!options.isKeep()) {
+				for (File file : created) {
+					try {
+						FileBatch.deleteTree(file);
+					} catch (IOException e) {
+						System.err.println(e.getMessage());
+					}
+				}
+			}
+		}
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	private void setup() throws DIDException {
+		DIDAdaptor adaptor;
+		if (options.getBackend().equals("local")) {
+			chain = new LocalChainAdaptor(chainRoot,
+					options.getBlockInterval(), TimeUnit.MILLISECONDS,
+					options.getBlockSize(), true);
+			adaptor = chain;
+		} else {
+			adaptor = new NullAdaptor();
+		}
+		DIDBackend.initialize(new MeteredAdaptor(adaptor));
+
+		phase("init", 1, new Task() {
+			@Override
+			public void run(int index) throws DIDException {
+				DIDStore.initialize(options.getStore(), storeRoot.getAbsolutePath(), passphrase);
+				store = DIDStore.getInstance();
+				store.initPrivateIdentity(Mnemonic.generate(Mnemonic.ENGLISH), passphrase, true);
+			}
+		});
+
+		if (store == null)
+			throw new DIDException("Can not initialize the " + options.getStore() + " store.");
+	}
+
+	private void create() throws DIDException {
+		dids = new DID[options.getDids()];
+
+		// DIDStore.newDid races on private/index when called concurrently.
+		phase("newDid", dids.length, 1,
+				"newDid runs on one thread, it is not safe to call concurrently", new Task() {
+			@Override
+			public void run(int index) throws DIDException {
+				dids[index] = store.newDid(passphrase, "my did " + index).getSubject();
+			}
+		});
+	}
+
+	private void publish() throws DIDException {
+		final int every = options.getPublishEvery();
+
+		phase("publishDid", (dids.length + every - 1) / every, new Task() {
+			@Override
+			public void run(int index) throws DIDException {
+				DID did = did(index * every);
+				DIDDocument doc = store.loadDid(did);
+				if (!store.publishDid(doc, new DIDURL(did, "primary"), passphrase))
+					throw new DIDException("Publish " + did + " was rejected.");
+			}
+		});
+	}
+
+	private void issue() throws DIDException {
+		final int per = options.getCredentials();
+		final DID issuerDid = did(0);
+		final ThreadLocal<Issuer> issuers = new ThreadLocal<Issuer>();
+
+		// Signing runs in parallel; the store writes are serialized, since
+		// nothing guarantees DIDStore file writes are safe concurrently.
+		phase("issueCredential", dids.length * per, options.getThreads(),
+				"credentials are signed in parallel, storeCredential holds a lock", new Task() {
+			@Override
+			public void run(int index) throws DIDException {
+				Issuer issuer = issuers.get();
+				if (issuer == null) {
+					issuer = new Issuer(issuerDid);
+					issuers.set(issuer);
+				}
+
+				DID did = did(index / per);
+				int n = index % per + 1;
+				VerifiableCredential vc = SampleCredentials.profile(issuer, did,
+						"cred-" + n, passphrase);
+
+				// Like DIDStoreTest, only the first credential gets an alias.
+				synchronized (storeLock) {
+					if (n == 1)
+						store.storeCredential(vc, "default");
+					else
+						store.storeCredential(vc);
+				}
+			}
+		});
+	}
+
+	private void list() throws DIDException {
+		phase("listDids", 1, new Task() {
+			@Override
+			public void run(int index) throws DIDException {
+				int listed = store.listDids(DIDStore.DID_ALL).size();
+				if (listed < dids.length)
+					throw new DIDException("Listed " + listed + " of " + dids.length + " DIDs.");
+			}
+		});
+
+		if (options.getCredentials() == 0 || !options.runs("issue"))
+			return;
+
+		phase("listCredentials", dids.length, new Task() {
+			@Override
+			public void run(int index) throws DIDException {
+				store.listCredentials(did(index));
+			}
+		});
+	}
+
+	private void load() throws DIDException {
+		phase("loadDid", dids.length, new Task() {
+			@Override
+			public void run(int index) throws DIDException {
+				if (store.loadDid(did(index)) == null)
+					throw new DIDException("DID " + index + " not found.");
+			}
+		});
+
+		if (options.getCredentials() == 0 || !options.runs("issue"))
+			return;
+
+		final int per = options.getCredentials();
+		phase("loadCredential", dids.length * per, new Task() {
+			@Override
+			public void run(int index) throws DIDException {
+				DID did = did(index / per);
+				if (store.loadCredential(did, new DIDURL(did, "cred-" + (index % per + 1))) == null)
+					throw new DIDException("Credential " + index + " not found.");
+			}
+		});
+	}
+
+	private void resolve() throws DIDException {
+		final int every = options.getPublishEvery();
+
+		phase("resolveDid", (dids.length + every - 1) / every, new Task() {
+			@Override
+			public void run(int index) throws DIDException {
+				if (store.resolveDid(did(index * every)) == null)
+					throw new DIDException("DID " + index * every + " did not resolve.");
+			}
+		});
+	}
+
+	private DID did(int index) throws DIDException {
+		DID did = dids[index];
+		if (did == null)
+			throw new DIDException("DID " + index + " was not created.");
+
+		return did;
+	}
+
+	private void phase(String name, int count, Task task) throws DIDException {
+		phase(name, count, options.getThreads(), null, task);
+	}
+
+	// Run task(0 .. count - 1) on the workers and record the phase.
+	private void phase(String name, final int count, int maxThreads, String note,
+			final Task task) throws DIDException {
+		final String latencyName = "scenario." + name + ".latency";
+		final AtomicInteger next = new AtomicInteger();
+		final AtomicLong failed = new AtomicLong();
+		final AtomicReference<Throwable> firstError = new AtomicReference<Throwable>();
+
+		Runnable worker = new Runnable() {
+			@Override
+			public void run() {
+				int i;
+				while ((i = next.getAndIncrement()) < count) {
+					long start = System.nanoTime();
+					try {
+						task.run(i);
+					} catch (DIDException | RuntimeException e) {
+						failed.incrementAndGet();
+						firstError.compareAndSet(null, e);
+					}
+					metrics.histogram(latencyName).record(System.nanoTime() - start);
+				}
+			}
+		};
+
+		int threads = Math.min(maxThreads, count);
+		List<Future<?>> futures = new ArrayList<Future<?>>(threads);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < threads; i++)
+			futures.add(workers.submit(worker));
+
+		try {
+			for (Future<?> future : futures)
+				future.get();
+		} catch (ExecutionException e) {
+			throw new DIDException("Phase " + name + " failed.", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DIDException("Interrupted in phase " + name + ".", e);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		DiskUsage usage = DiskUsage.of(storeRoot);
+		HistogramSnapshot latency = metrics.getHistograms().get(latencyName);
+		errors += failed.get();
+
+		ObjectNode phase = phases.addObject();
+		phase.put("name", name);
+		phase.put("operations", count);
+		phase.put("threads", threads);
+		if (note != null)
+			phase.put("note", note);
+		phase.put("errors", failed.get());
+		if (firstError.get() != null)
+			phase.put("firstError", String.valueOf(firstError.get()));
+		phase.put("seconds", seconds);
+		phase.put("throughput", count / seconds);
+
+		ObjectNode micros = phase.putObject("latencyMicros");
+		micros.put("p50", latency.getP50() / 1e3);
+		micros.put("p99", latency.getP99() / 1e3);
+		micros.put("p999", latency.getP999() / 1e3);
+		micros.put("max", latency.getMax() / 1e3);
+		micros.put("mean", latency.getMean() / 1e3);
+
+		ObjectNode disk = phase.putObject("disk");
+		disk.put("files", usage.getFiles());
+		disk.put("directories", usage.getDirectories());
+		disk.put("bytes", usage.getBytes());
+
+		System.err.println(String.format("%-16s %9d ops %9.2f s %11.1f ops/s  p50 %9.1f us  p99 %9.1f us  %8d files  %d errors",
+				name, count, seconds, count / seconds, latency.getP50() / 1e3,
+				latency.getP99() / 1e3, usage.getFiles(), failed.get()));
+	}
+
+	private ObjectNode report() {
+		ObjectNode report = mapper.createObjectNode();
+
+		ObjectNode scenario = report.putObject("scenario");
+		scenario.put("dids", options.getDids());
+		scenario.put("credentials", options.getCredentials());
+		scenario.put("threads", options.getThreads());
+		scenario.put("store", options.getStore());
+		scenario.put("backend", options.getBackend());
+		scenario.put("blockInterval", options.getBlockInterval());
+		scenario.put("blockSize", options.getBlockSize());
+		scenario.put("publishEvery", options.getPublishEvery());
+
+		ObjectNode jvm = report.putObject("jvm");
+		jvm.put("version", System.getProperty("java.version"));
+		jvm.put("processors", Runtime.getRuntime().availableProcessors());
+		jvm.put("maxMemory", Runtime.getRuntime().maxMemory());
+
+		report.set("phases", phases);
+
+		if (chain != null) {
+			ObjectNode node = report.putObject("chain");
+			node.put("height", chain.getHeight());
+			node.put("dids", chain.getDidCount());
+			node.put("rejected", chain.getRejectedCount());
+		}
+
+		report.set("metrics", metrics.toJson(mapper));
+		return report;
+	}
+
+	public static void main(String[] args) throws IOException, DIDException {
+		if (args.length == 1 && args[0].equals("--help")) {
+			System.out.print(ScenarioOptions.USAGE);
+			return;
+		}
+
+		ScenarioOptions options;
+		try {
+			options = ScenarioOptions.parse(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.print(ScenarioOptions.USAGE);
+			System.exit(2);
+			return;
+		}
+
+		ScenarioRunner runner = new ScenarioRunner(options);
+		ObjectNode report = runner.run();
+
+		OutputStream out = options.getOut() != null
+				? new FileOutputStream(options.getOut()) : System.out;
+		runner.mapper.writerWithDefaultPrettyPrinter().writeValue(out, report);
+		System.out.flush();
+
+		if (runner.getErrors() > 0) {
+			System.err.println(runner.getErrors() + " operation(s) failed.");
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.store;
+
+import org.elastos.credential.VerifiableCredential;
+import org.elastos.did.DID;
+import org.elastos.did.DIDDocument;
+import org.elastos.did.DIDException;
+import org.elastos.did.DIDStore;
+import org.elastos.did.DIDURL;
+import org.elastos.did.benchmark.metrics.Metrics;
+import org.elastos.did.benchmark.metrics.MetricsRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A CompletableFuture facade over a DIDStore.
+ *
+ * Operations dominated by disk or ID chain I/O run on the I/O executor,
+ * the ones dominated by key derivation and signing on the crypto executor,
+ * so a burst of slow backend calls can't starve CPU-bound work. Callers
+ * never block; the number of threads is bounded by the two executors, not
+ * by the number of requests in flight.
+ *
+ * newDid, storeDid and storeCredential hold the store's monitor, so only
+ * one store write runs at a time, even across facades over the same store:
+ * the store gives no guarantee that concurrent writes are safe, and newDid
+ * races on private/index. A burst of writes can therefore park threads
+ * waiting for the lock. Reads and publishDid are not serialized, so ID
+ * chain round trips still overlap.
+ *
+ * Each operation reports to the installed MetricsRegistry how long it
+ * waited for a thread (store.<op>.queue), how long it ran
+ * (store.<op>.latency) and how often it failed (store.<op>.errors).
+ */
+public class AsyncDIDStore {
+	private final DIDStore store;
+	private final Executor ioExecutor;
+	private final Executor cryptoExecutor;
+
+	private interface Operation<T> {
+		T run() throws DIDException;
+	}
+
+	private static class Op {
+		private final String queue;
+		private final String latency;
+		private final String errors;
+
+		private Op(String name) {
+			queue = "store." + name + ".queue";
+			latency = "store." + name + ".latency";
+			errors = "store." + name + ".errors";
+		}
+	}
+
+	private static final Op NEW_DID = new Op("newDid");
+	private static final Op LOAD_DID = new Op("loadDid");
+	private static final Op RESOLVE_DID = new Op("resolveDid");
+	private static final Op STORE_DID = new Op("storeDid");
+	private static final Op PUBLISH_DID = new Op("publishDid");
+	private static final Op STORE_CREDENTIAL = new Op("storeCredential");
+	private static final Op LOAD_CREDENTIAL = new Op("loadCredential");
+
+	public AsyncDIDStore(DIDStore store, Executor ioExecutor, Executor cryptoExecutor) {
+		if (store == null || ioExecutor == null || cryptoExecutor == null)
+			throw new IllegalArgumentException();
+
+		this.store = store;
+		this.ioExecutor = ioExecutor;
+		this.cryptoExecutor = cryptoExecutor;
+	}
+
+	public AsyncDIDStore(DIDStore store, Executor executor) {
+		this(store, executor, executor);
+	}
+
+	public DIDStore getStore() {
+		return store;
+	}
+
+	public CompletableFuture<DIDDocument> newDid(final String passphrase, final String hint) {
+		return submit(cryptoExecutor, NEW_DID, new Operation<DIDDocument>() {
+			@Override
+			public DIDDocument run() throws DIDException {
+				synchronized (store) {
+					return store.newDid(passphrase, hint);
+				}
+			}
+		});
+	}
+
+	public CompletableFuture<DIDDocument> loadDid(final DID did) {
+		return submit(ioExecutor, LOAD_DID, new Operation<DIDDocument>() {
+			@Override
+			public DIDDocument run() throws DIDException {
+				return store.loadDid(did);
+			}
+		});
+	}
+
+	public CompletableFuture<DIDDocument> resolveDid(final DID did) {
+		return submit(ioExecutor, RESOLVE_DID, new Operation<DIDDocument>() {
+			@Override
+			public DIDDocument run() throws DIDException {
+				return store.resolveDid(did);
+			}
+		});
+	}
+
+	public CompletableFuture<Void> storeDid(final DIDDocument doc) {
+		return submit(ioExecutor, STORE_DID, new Operation<Void>() {
+			@Override
+			public Void run() throws DIDException {
+				synchronized (store) {
+					store.storeDid(doc);
+				}
+				return null;
+			}
+		});
+	}
+
+	// Signing is cheap next to the ID chain round trip, so this runs as I/O.
+	public CompletableFuture<Boolean> publishDid(final DIDDocument doc,
+			final DIDURL signKey, final String passphrase) {
+		return submit(ioExecutor, PUBLISH_DID, new Operation<Boolean>() {
+			@Override
+			public Boolean run() throws DIDException {
+				return store.publishDid(doc, signKey, passphrase);
+			}
+		});
+	}
+
+	public CompletableFuture<Void> storeCredential(final VerifiableCredential vc,
+			final String hint) {
+		return submit(ioExecutor, STORE_CREDENTIAL, new Operation<Void>() {
+			@Override
+			public Void run() throws DIDException {
+				synchronized (store) {
+					store.storeCredential(vc, hint);
+				}
+				return null;
+			}
+		});
+	}
+
+	public CompletableFuture<Void> storeCredential(final VerifiableCredential vc) {
+		return submit(ioExecutor, STORE_CREDENTIAL, new Operation<Void>() {
+			@Override
+			public Void run() throws DIDException {
+				synchronized (store) {
+					store.storeCredential(vc);
+				}
+				return null;
+			}
+		});
+	}
+
+	public CompletableFuture<VerifiableCredential> loadCredential(final DID did,
+			final DIDURL id) {
+		return submit(ioExecutor, LOAD_CREDENTIAL, new Operation<VerifiableCredential>() {
+			@Override
+			public VerifiableCredential run() throws DIDException {
+				return store.loadCredential(did, id);
+			}
+		});
+	}
+
+	private static <T> CompletableFuture<T> submit(Executor executor,
+			final Op metric, final Operation<T> op) {
+		final CompletableFuture<T> future = new CompletableFuture<T>();
+		final boolean timed = Metrics.registry().isEnabled();
+		final long submitted = timed ? System.nanoTime() : 0;
+
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					MetricsRegistry metrics = Metrics.registry();
+					boolean enabled = metrics.isEnabled();
+					long start = enabled ? System.nanoTime() : 0;
+					// The registry may have been enabled after submission.
+					if (enabled && timed)
+						metrics.histogram(metric.queue).record(start - submitted);
+
+					try {
+						future.complete(op.run());
+					} catch (Throwable e) {
+						metrics.counter(metric.errors).increment();
+						future.completeExceptionally(e);
+						if (e instanceof Error)
+							throw (Error)e;
+					} finally {
+						if (enabled)
+							metrics.histogram(metric.latency).record(System.nanoTime() - start);
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			// Rejected by a saturated or shut down executor.
+			Metrics.registry().counter(metric.errors).increment();
+			future.completeExceptionally(e);
+		}
+
+		return future;
+	}
+}
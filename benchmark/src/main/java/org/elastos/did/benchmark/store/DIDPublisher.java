@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.store;
+
+import org.elastos.did.DIDDocument;
+import org.elastos.did.DIDException;
+import org.elastos.did.DIDStore;
+import org.elastos.did.DIDURL;
+import org.elastos.did.benchmark.backend.TransactionResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Publishes many documents through DIDStore.publishDid with several
+ * submissions in flight at once.
+ *
+ * Together with a BatchingAdaptor the in-flight transactions reach the
+ * ID chain as bulk submissions; with a plain adaptor they are pipelined.
+ */
+public class DIDPublisher {
+	private final DIDStore store;
+	private final ExecutorService executor;
+
+	public DIDPublisher(DIDStore store, ExecutorService executor) {
+		if (store == null || executor == null)
+			throw new IllegalArgumentException();
+
+		this.store = store;
+		this.executor = executor;
+	}
+
+	/**
+	 * Publish every document, signed with its key that has the given
+	 * fragment, and report the outcome of each one in iteration order.
+	 */
+	public List<TransactionResult> publishDids(Collection<DIDDocument> docs,
+			final String signKey, final String passphrase) throws DIDException {
+		List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(docs.size());
+
+		for (final DIDDocument doc : docs) {
+			futures.add(executor.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws DIDException {
+					return store.publishDid(doc, new DIDURL(doc.getSubject(), signKey), passphrase);
+				}
+			}));
+		}
+
+		List<TransactionResult> results = new ArrayList<TransactionResult>(futures.size());
+		for (Future<Boolean> future : futures) {
+			try {
+				results.add(TransactionResult.of(future.get()));
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				results.add(TransactionResult.failed(cause instanceof DIDException ?
+						(DIDException)cause : new DIDException("Publish failed.", cause)));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new DIDException("Interrupted while publishing.", e);
+			}
+		}
+
+		return results;
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Key material derived once from a password and reused, compatible with
+ * org.elastos.did.util.Aes256cbc, which re-derives it on every call.
+ *
+ * The derivation is the one Aes256cbc uses: OpenSSL EVP_BytesToKey with
+ * MD5, no salt and one round, giving the AES-256 key and the CBC IV.
+ */
+public class Aes256cbcKey {
+	private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+
+	private final byte[] key;
+	private final byte[] iv;
+	private final ThreadLocal<Cipher> ciphers;
+	private volatile boolean destroyed;
+
+	private Aes256cbcKey(byte[] key, byte[] iv) {
+		this.key = key;
+		this.iv = iv;
+		this.ciphers = new ThreadLocal<Cipher>();
+	}
+
+	public static Aes256cbcKey derive(String passwd) throws GeneralSecurityException {
+		byte[] pass = passwd.getBytes(StandardCharsets.UTF_8);
+		MessageDigest md5 = MessageDigest.getInstance("MD5");
+
+		byte[] d1 = md5.digest(pass);
+		md5.update(d1);
+		byte[] d2 = md5.digest(pass);
+		md5.update(d2);
+		byte[] d3 = md5.digest(pass);
+
+		byte[] key = new byte[32];
+		System.arraycopy(d1, 0, key, 0, 16);
+		System.arraycopy(d2, 0, key, 16, 16);
+
+		Arrays.fill(d1, (byte)0);
+		Arrays.fill(d2, (byte)0);
+
+		return new Aes256cbcKey(key, d3);
+	}
+
+	public byte[] encrypt(byte[] plain) throws GeneralSecurityException {
+		return encrypt(plain, 0, plain.length);
+	}
+
+	public byte[] encrypt(byte[] plain, int offset, int length)
+			throws GeneralSecurityException {
+		return cipher(Cipher.ENCRYPT_MODE).doFinal(plain, offset, length);
+	}
+
+	public byte[] decrypt(byte[] cipher) throws GeneralSecurityException {
+		return decrypt(cipher, 0, cipher.length);
+	}
+
+	public byte[] decrypt(byte[] cipher, int offset, int length)
+			throws GeneralSecurityException {
+		return cipher(Cipher.DECRYPT_MODE).doFinal(cipher, offset, length);
+	}
+
+	/**
+	 * Encrypt the remaining bytes of input into output; both may be the
+	 * same buffer. Output needs room for up to one extra AES block.
+	 */
+	public int encrypt(ByteBuffer input, ByteBuffer output)
+			throws GeneralSecurityException {
+		return cipher(Cipher.ENCRYPT_MODE).doFinal(input, output);
+	}
+
+	public int decrypt(ByteBuffer input, ByteBuffer output)
+			throws GeneralSecurityException {
+		return cipher(Cipher.DECRYPT_MODE).doFinal(input, output);
+	}
+
+	// Streams get their own Cipher, they outlive the call.
+	public OutputStream encryptTo(OutputStream out) throws GeneralSecurityException {
+		return new CipherOutputStream(out, newCipher(Cipher.ENCRYPT_MODE));
+	}
+
+	public InputStream decryptFrom(InputStream in) throws GeneralSecurityException {
+		return new CipherInputStream(in, newCipher(Cipher.DECRYPT_MODE));
+	}
+
+	/**
+	 * Wipe the key material. Ciphers that were already initialized keep
+	 * their own copy inside the JCE provider.
+	 */
+	public void destroy() {
+		destroyed = true;
+		Arrays.fill(key, (byte)0);
+		Arrays.fill(iv, (byte)0);
+	}
+
+	public boolean isDestroyed() {
+		return destroyed;
+	}
+
+	private Cipher cipher(int mode) throws GeneralSecurityException {
+		checkDestroyed();
+
+		Cipher cipher = ciphers.get();
+		if (cipher == null) {
+			cipher = Cipher.getInstance(TRANSFORMATION);
+			ciphers.set(cipher);
+		}
+
+		cipher.init(mode, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+		return cipher;
+	}
+
+	private Cipher newCipher(int mode) throws GeneralSecurityException {
+		checkDestroyed();
+
+		Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+		cipher.init(mode, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+		return cipher;
+	}
+
+	private void checkDestroyed() {
+		if (destroyed)
+			throw new IllegalStateException("Key destroyed.");
+	}
+}
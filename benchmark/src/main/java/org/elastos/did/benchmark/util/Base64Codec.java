@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import org.elastos.did.util.Base64;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Base64 encoding and decoding into caller-provided buffers, compatible
+ * with org.elastos.did.util.Base64, which always allocates its result.
+ *
+ * The flags are the ones Base64 takes. Only unwrapped output
+ * (Base64.NO_WRAP) is produced; the decoder skips whitespace, so wrapped
+ * input decodes fine, and accepts input with or without padding. On
+ * invalid input or a full output buffer the output may be partly
+ * written.
+ */
+public final class Base64Codec {
+	private static final byte[] ALPHABET =
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+			.getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] URL_SAFE_ALPHABET =
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+			.getBytes(StandardCharsets.US_ASCII);
+
+	private static final int INVALID = -1;
+	private static final int SKIP = -2;
+	private static final int PAD = -3;
+
+	private static final int[] DECODE = table(ALPHABET);
+	private static final int[] URL_SAFE_DECODE = table(URL_SAFE_ALPHABET);
+
+	private Base64Codec() {
+	}
+
+	private static int[] table(byte[] alphabet) {
+		int[] table = new int[256];
+		Arrays.fill(table, INVALID);
+		for (int i = 0; i < alphabet.length; i++)
+			table[alphabet[i]] = i;
+
+		table[' '] = SKIP;
+		table['\t'] = SKIP;
+		table['\n'] = SKIP;
+		table['\r'] = SKIP;
+		table['='] = PAD;
+		return table;
+	}
+
+	public static int encodedLength(int length, int flags) {
+		if ((flags & Base64.NO_PADDING) != 0)
+			return length / 3 * 4 + (length % 3 == 0 ? 0 : length % 3 + 1);
+		else
+			return (length + 2) / 3 * 4;
+	}
+
+	// An upper bound; whitespace and padding make the result shorter.
+	public static int maxDecodedLength(int length) {
+		return length / 4 * 3 + Math.max(length % 4 - 1, 0);
+	}
+
+	public static int encode(byte[] src, int offset, int length,
+			byte[] dst, int dstOffset, int flags) {
+		return encode(ByteBuffer.wrap(src, offset, length),
+				ByteBuffer.wrap(dst, dstOffset, dst.length - dstOffset), flags);
+	}
+
+	/**
+	 * Encode the remaining bytes of src into dst as ASCII and return the
+	 * number of bytes written. Both buffers advance.
+	 *
+	 * @throws BufferOverflowException if dst has less room than
+	 *         encodedLength(src.remaining(), flags); nothing is written
+	 */
+	public static int encode(ByteBuffer src, ByteBuffer dst, int flags) {
+		if ((flags & Base64.NO_WRAP) == 0)
+			throw new IllegalArgumentException("Base64Codec requires NO_WRAP.");
+
+		int length = encodedLength(src.remaining(), flags);
+		if (dst.remaining() < length)
+			throw new BufferOverflowException();
+
+		byte[] alphabet = (flags & Base64.URL_SAFE) != 0 ? URL_SAFE_ALPHABET : ALPHABET;
+		while (src.remaining() >= 3) {
+			int bits = (src.get() & 0xFF) << 16 | (src.get() & 0xFF) << 8 | (src.get() & 0xFF);
+			dst.put(alphabet[bits >>> 18]);
+			dst.put(alphabet[(bits >>> 12) & 0x3F]);
+			dst.put(alphabet[(bits >>> 6) & 0x3F]);
+			dst.put(alphabet[bits & 0x3F]);
+		}
+
+		boolean padding = (flags & Base64.NO_PADDING) == 0;
+		if (src.remaining() == 1) {
+			int bits = (src.get() & 0xFF) << 4;
+			dst.put(alphabet[bits >>> 6]);
+			dst.put(alphabet[bits & 0x3F]);
+			if (padding) {
+				dst.put((byte)'=');
+				dst.put((byte)'=');
+			}
+		} else if (src.remaining() == 2) {
+			int bits = ((src.get() & 0xFF) << 8 | (src.get() & 0xFF)) << 2;
+			dst.put(alphabet[bits >>> 12]);
+			dst.put(alphabet[(bits >>> 6) & 0x3F]);
+			dst.put(alphabet[bits & 0x3F]);
+			if (padding)
+				dst.put((byte)'=');
+		}
+
+		return length;
+	}
+
+	public static int decode(byte[] src, int offset, int length,
+			byte[] dst, int dstOffset, int flags) {
+		return decode(ByteBuffer.wrap(src, offset, length),
+				ByteBuffer.wrap(dst, dstOffset, dst.length - dstOffset), flags);
+	}
+
+	/**
+	 * Decode the remaining ASCII bytes of src into dst and return the
+	 * number of bytes written. Both buffers advance.
+	 *
+	 * @throws IllegalArgumentException if src is not valid base64
+	 * @throws BufferOverflowException if dst is too small
+	 */
+	public static int decode(ByteBuffer src, ByteBuffer dst, int flags) {
+		Decoder decoder = new Decoder(flags, dst);
+		int end = src.limit();
+		for (int i = src.position(); i < end; i++)
+			decoder.accept(src.get(i) & 0xFF, i);
+
+		src.position(end);
+		return decoder.finish();
+	}
+
+	public static int decode(CharSequence src, int offset, int length,
+			byte[] dst, int dstOffset, int flags) {
+		return decode(CharBuffer.wrap(src, offset, offset + length),
+				ByteBuffer.wrap(dst, dstOffset, dst.length - dstOffset), flags);
+	}
+
+	// Also takes a String or a char[] through CharBuffer.wrap.
+	public static int decode(CharBuffer src, ByteBuffer dst, int flags) {
+		Decoder decoder = new Decoder(flags, dst);
+		int end = src.limit();
+		for (int i = src.position(); i < end; i++)
+			decoder.accept(src.get(i), i);
+
+		src.position(end);
+		return decoder.finish();
+	}
+
+	private static final class Decoder {
+		private final int[] table;
+		private final ByteBuffer dst;
+		private final int start;
+		private int bits;
+		private int sextets;
+		private boolean padded;
+
+		private Decoder(int flags, ByteBuffer dst) {
+			this.table = (flags & Base64.URL_SAFE) != 0 ? URL_SAFE_DECODE : DECODE;
+			this.dst = dst;
+			this.start = dst.position();
+		}
+
+		private void accept(int c, int index) {
+			int v = c < 256 ? table[c] : INVALID;
+			if (v >= 0 && !padded) {
+				bits = bits << 6 | v;
+				if (++sextets == 4) {
+					dst.put((byte)(bits >>> 16));
+					dst.put((byte)(bits >>> 8));
+					dst.put((byte)bits);
+					bits = 0;
+					sextets = 0;
+				}
+			} else if (v == PAD && sextets >= 2) {
+				padded = true;
+			} else if (v != SKIP) {
+				throw new IllegalArgumentException("Bad base64 character at " + index);
+			}
+		}
+
+		private int finish() {
+			if (sextets == 1)
+				throw new IllegalArgumentException("Truncated base64 input.");
+
+			if (sextets == 2) {
+				dst.put((byte)(bits >>> 4));
+			} else if (sextets == 3) {
+				dst.put((byte)(bits >>> 10));
+				dst.put((byte)(bits >>> 2));
+			}
+
+			return dst.position() - start;
+		}
+	}
+}
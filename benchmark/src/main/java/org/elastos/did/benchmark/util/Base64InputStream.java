@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes Base64 text read from a Reader or an ASCII stream, a bounded
+ * chunk at a time, so large payloads never exist as one decoded copy.
+ * Line breaks and other whitespace in the input are skipped.
+ */
+public class Base64InputStream extends InputStream {
+	// A multiple of 4, so chunks always hold whole groups.
+	private static final int CHUNK = 4 * 1024;
+
+	private final Reader in;
+	private final int flags;
+	private final char[] chars = new char[CHUNK];
+	private final CharBuffer charBuffer = CharBuffer.wrap(chars);
+	private final byte[] decoded = new byte[Base64Codec.maxDecodedLength(CHUNK)];
+	private final ByteBuffer decodedBuffer = ByteBuffer.wrap(decoded);
+	private int pos;
+	private int limit;
+	private int pending;
+	private boolean eof;
+
+	public Base64InputStream(Reader in, int flags) {
+		if (in == null)
+			throw new IllegalArgumentException();
+
+		this.in = in;
+		this.flags = flags;
+	}
+
+	public Base64InputStream(InputStream in, int flags) {
+		this(new InputStreamReader(in, StandardCharsets.US_ASCII), flags);
+	}
+
+	public Base64InputStream(String encoded, int flags) {
+		this(new StringReader(encoded), flags);
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (pos == limit && !fill())
+			return -1;
+
+		return decoded[pos++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+
+		if (pos == limit && !fill())
+			return -1;
+
+		int n = Math.min(len, limit - pos);
+		System.arraycopy(decoded, pos, b, off, n);
+		pos += n;
+		return n;
+	}
+
+	@Override
+	public int available() {
+		return limit - pos;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	// Decode the next chunk; false at the end of the input.
+	private boolean fill() throws IOException {
+		while (true) {
+			while (!eof && pending < chars.length) {
+				int n = in.read(chars, pending, chars.length - pending);
+				if (n < 0) {
+					eof = true;
+					break;
+				}
+
+				// Compact the whitespace out of what was just read.
+				int end = pending + n;
+				for (int i = pending; i < end; i++) {
+					char c = chars[i];
+					if (!Character.isWhitespace(c))
+						chars[pending++] = c;
+				}
+			}
+
+			if (pending == 0)
+				return false;
+
+			// Hold back a partial group unless it is the end of the input.
+			int len = eof ? pending : pending - pending % 4;
+			charBuffer.clear();
+			charBuffer.limit(len);
+			decodedBuffer.clear();
+			try {
+				limit = Base64Codec.decode(charBuffer, decodedBuffer, flags);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Invalid base64 data.", e);
+			}
+
+			System.arraycopy(chars, len, chars, 0, pending - len);
+			pending -= len;
+			pos = 0;
+
+			if (limit > 0)
+				return true;
+		}
+	}
+}
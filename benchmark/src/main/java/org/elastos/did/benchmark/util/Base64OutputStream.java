@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import org.elastos.did.util.Base64;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Base64-encodes everything written to it into the underlying stream,
+ * a bounded chunk at a time, so large payloads never exist as one
+ * encoded copy. Only unwrapped output (Base64.NO_WRAP) is supported.
+ */
+public class Base64OutputStream extends FilterOutputStream {
+	// A multiple of 3, so chunks never need padding in the middle.
+	private static final int CHUNK = 3 * 1024;
+
+	private final int flags;
+	private final byte[] buffer = new byte[CHUNK];
+	private final byte[] encoded = new byte[CHUNK / 3 * 4];
+	private int count;
+	private boolean closed;
+
+	public Base64OutputStream(OutputStream out, int flags) {
+		super(out);
+
+		if ((flags & Base64.NO_WRAP) == 0)
+			throw new IllegalArgumentException("Base64OutputStream requires NO_WRAP.");
+
+		this.flags = flags;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (count == buffer.length)
+			encode(count);
+
+		buffer[count++] = (byte)b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (count == buffer.length)
+				encode(count);
+
+			int n = Math.min(len, buffer.length - count);
+			System.arraycopy(b, off, buffer, count, n);
+			count += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	// Only whole 3-byte groups can be encoded before the stream ends.
+	@Override
+	public void flush() throws IOException {
+		encode(count - count % 3);
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+
+		closed = true;
+		try {
+			encode(count);
+		} finally {
+			out.close();
+		}
+	}
+
+	private void encode(int len) throws IOException {
+		if (len == 0)
+			return;
+
+		int n = Base64Codec.encode(buffer, 0, len, encoded, 0, flags);
+		out.write(encoded, 0, n);
+
+		System.arraycopy(buffer, len, buffer, 0, count - len);
+		count -= len;
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import org.elastos.did.util.EcdsaSigner;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Verifies many EcdsaSigner signatures across a fork-join pool.
+ *
+ * The result has bit i set when item i verified. With fail fast, work
+ * stops at the first bad signature; items not checked by then are left
+ * clear, so a fail-fast result only tells whether everything verified.
+ * An item whose verification throws, such as one with a malformed public
+ * key, counts as not verified.
+ */
+public class BatchVerifier {
+	private static final int THRESHOLD = 8;
+
+	private final ForkJoinPool pool;
+
+	public static class Item {
+		private final byte[] publicKey;
+		private final byte[] data;
+		private final byte[] nonce;
+		private final byte[] signature;
+
+		public Item(byte[] publicKey, byte[] data, byte[] nonce, byte[] signature) {
+			this.publicKey = publicKey;
+			this.data = data;
+			this.nonce = nonce;
+			this.signature = signature;
+		}
+
+		public Item(byte[] publicKey, byte[] data, byte[] signature) {
+			this(publicKey, data, null, signature);
+		}
+
+		public boolean verify() {
+			return nonce != null ?
+					EcdsaSigner.verify(publicKey, data, nonce, signature) :
+					EcdsaSigner.verify(publicKey, data, signature);
+		}
+	}
+
+	public BatchVerifier(ForkJoinPool pool) {
+		if (pool == null)
+			throw new IllegalArgumentException();
+
+		this.pool = pool;
+	}
+
+	public BatchVerifier() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	public BitSet verify(List<? extends Item> items, boolean failFast) {
+		boolean[] results = new boolean[items.size()];
+		AtomicBoolean failed = failFast ? new AtomicBoolean() : null;
+
+		pool.invoke(new VerifyTask(items, results, failed, 0, items.size()));
+
+		BitSet bits = new BitSet(results.length);
+		for (int i = 0; i < results.length; i++) {
+			if (results[i])
+				bits.set(i);
+		}
+
+		return bits;
+	}
+
+	public boolean verifyAll(List<? extends Item> items) {
+		return verify(items, true).cardinality() == items.size();
+	}
+
+	boolean verify(Item item) {
+		return item.verify();
+	}
+
+	private class VerifyTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final List<? extends Item> items;
+		private final boolean[] results;
+		private final AtomicBoolean failed;
+		private final int from;
+		private final int to;
+
+		private VerifyTask(List<? extends Item> items, boolean[] results,
+				AtomicBoolean failed, int from, int to) {
+			this.items = items;
+			this.results = results;
+			this.failed = failed;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= THRESHOLD) {
+				for (int i = from; i < to; i++) {
+					if (failed != null && failed.get())
+						return;
+
+					try {
+						results[i] = verify(items.get(i));
+					} catch (RuntimeException e) {
+						// e.g. a malformed public key failing to decode.
+						results[i] = false;
+					}
+
+					if (!results[i] && failed != null)
+						failed.set(true);
+				}
+
+				return;
+			}
+
+			int mid = (from + to) >>> 1;
+			invokeAll(new VerifyTask(items, results, failed, from, mid),
+					new VerifyTask(items, results, failed, mid, to));
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import org.elastos.did.DID;
+import org.elastos.did.DIDException;
+import org.elastos.did.DIDURL;
+import org.elastos.did.MalformedDIDException;
+
+/**
+ * Canonical DID and DIDURL instances, so identical identifiers seen over
+ * and over (resolved documents, credential ids, map keys) are parsed once
+ * and share one object.
+ *
+ * url(String) and url(DID, String) share one table: a plain did#fragment
+ * string is looked up under the same (DID, fragment) key as the second
+ * form, so both return the same instance. Other URLs (with a path, query
+ * or parameters) are keyed by their string.
+ */
+public class DIDPool {
+	private final WeakInterner<String, DID, MalformedDIDException> dids;
+	private final WeakInterner<Object, DIDURL, DIDException> urls;
+
+	// A DID plus fragment, so lookups need not build the URL string.
+	private static class UrlKey {
+		private final DID did;
+		private final String fragment;
+
+		private UrlKey(DID did, String fragment) {
+			this.did = did;
+			this.fragment = fragment;
+		}
+
+		@Override
+		public int hashCode() {
+			return did.hashCode() * 31 + fragment.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof UrlKey))
+				return false;
+
+			UrlKey other = (UrlKey)obj;
+			return did.equals(other.did) && fragment.equals(other.fragment);
+		}
+	}
+
+	public DIDPool() {
+		dids = new WeakInterner<String, DID, MalformedDIDException>(
+				new WeakInterner.Factory<String, DID, MalformedDIDException>() {
+			@Override
+			public DID create(String did) throws MalformedDIDException {
+				return new DID(did);
+			}
+		});
+
+		urls = new WeakInterner<Object, DIDURL, DIDException>(
+				new WeakInterner.Factory<Object, DIDURL, DIDException>() {
+			@Override
+			public DIDURL create(Object key) throws DIDException {
+				if (key instanceof UrlKey) {
+					UrlKey url = (UrlKey)key;
+					return new DIDURL(url.did, url.fragment);
+				}
+
+				return new DIDURL((String)key);
+			}
+		});
+	}
+
+	public DID did(String did) throws MalformedDIDException {
+		return dids.intern(did);
+	}
+
+	public DIDURL url(String url) throws DIDException {
+		int hash = url.indexOf('#');
+		if (hash > 0 && url.startsWith("did:")) {
+			String did = url.substring(0, hash);
+			if (did.indexOf('/') < 0 && did.indexOf('?') < 0 && did.indexOf(';') < 0)
+				return url(did(did), url.substring(hash + 1));
+		}
+
+		return urls.intern(url);
+	}
+
+	public DIDURL url(DID did, String fragment) throws DIDException {
+		return urls.intern(new UrlKey(did, fragment));
+	}
+
+	public int size() {
+		return dids.size() + urls.size();
+	}
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Groups file writes and deletes below a root directory into batches
+ * that are made durable with a single fsync, the way a file system store
+ * can persist a DID, its credentials and their .meta hints together.
+ *
+ * Writes and deletes are staged in memory until commit(). A commit
+ * appends the whole batch to a checksummed journal and fsyncs it once,
+ * then applies it: every file is written to a temporary sibling and
+ * renamed over the target, every delete removes the file or directory
+ * tree. The applied files are only fsynced at the next checkpoint(), which
+ * then truncates the journal. If the process dies before that, opening a
+ * FileBatch on the same root replays the complete batches in the journal.
+ * A batch whose journal frame was torn is dropped as a whole.
+ *
+ * Staged changes are not visible to readers until committed.
+ */
+public class FileBatch implements Closeable {
+	public static final String JOURNAL = ".batch-journal";
+
+	private static final int MAGIC = 0x44494442;
+	private static final byte WRITE = 1;
+	private static final byte DELETE = 2;
+	private static final byte[] DELETED = new byte[0];
+
+	private final File root;
+	private final File journalFile;
+	private final long checkpointBytes;
+
+	private final Map<File, byte[]> staged;
+	private final Set<File> dirty;
+	private FileChannel journal;
+	private long syncs;
+
+	public FileBatch(File root) throws IOException {
+		this(root, 4 * 1024 * 1024);
+	}
+
+	/**
+	 * @param checkpointBytes journal size after which a commit also
+	 *        checkpoints, 0 to checkpoint only when asked
+	 */
+	public FileBatch(File root, long checkpointBytes) throws IOException {
+		if (root == null || checkpointBytes < 0)
+			throw new IllegalArgumentException();
+
+		this.root = root.getCanonicalFile();
+		this.journalFile = new File(this.root, JOURNAL);
+		this.checkpointBytes = checkpointBytes;
+		this.staged = new LinkedHashMap<File, byte[]>();
+		this.dirty = new LinkedHashSet<File>();
+
+		if (!this.root.isDirectory() && !this.root.mkdirs())
+			throw new IOException("Can not create directory " + root);
+
+		recover();
+	}
+
+	public File getRoot() {
+		return root;
+	}
+
+	public synchronized void write(File file, byte[] data) throws IOException {
+		if (data == null)
+			throw new IllegalArgumentException();
+
+		stage(file, data.clone());
+	}
+
+	public void write(File file, String text) throws IOException {
+		write(file, text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// Removes a file, or a directory with everything below it.
+	public synchronized void delete(File file) throws IOException {
+		stage(file, DELETED);
+	}
+
+	public synchronized int size() {
+		return staged.size();
+	}
+
+	public synchronized void rollback() {
+		staged.clear();
+	}
+
+	// Number of fsyncs issued so far, journal and checkpoints included.
+	public synchronized long getSyncCount() {
+		return syncs;
+	}
+
+	public synchronized void commit() throws IOException {
+		if (staged.isEmpty())
+			return;
+
+		byte[] frame = encode(staged);
+		ByteBuffer buffer = ByteBuffer.allocate(frame.length + 12);
+		buffer.putInt(MAGIC).putInt(frame.length).put(frame).putInt(crc(frame));
+		buffer.flip();
+
+		FileChannel channel = journal();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		channel.force(false);
+		syncs++;
+
+		for (Map.Entry<File, byte[]> entry : staged.entrySet())
+			apply(entry.getKey(), entry.getValue());
+		staged.clear();
+
+		if (checkpointBytes > 0 && channel.size() >= checkpointBytes)
+			checkpoint();
+	}
+
+	/**
+	 * Fsyncs everything applied since the last checkpoint and empties the
+	 * journal. Each file and directory is synced once however many
+	 * batches touched it.
+	 */
+	public synchronized void checkpoint() throws IOException {
+		for (File file : dirty) {
+			if (file.exists()) {
+				sync(file);
+				syncs++;
+			}
+		}
+		dirty.clear();
+
+		if (journal != null) {
+			journal.truncate(0);
+			journal.force(false);
+			syncs++;
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		checkpoint();
+
+		if (journal != null) {
+			journal.close();
+			journal = null;
+		}
+
+		journalFile.delete();
+	}
+
+	private void stage(File file, byte[] data) throws IOException {
+		File target = file.getCanonicalFile();
+		if (target.equals(root) || target.equals(journalFile)
+				|| !target.getPath().startsWith(root.getPath() + File.separator))
+			throw new IllegalArgumentException(file + " is not below " + root);
+
+		// A later change to the same file replaces the earlier one.
+		staged.remove(target);
+		staged.put(target, data);
+	}
+
+	private FileChannel journal() throws IOException {
+		if (journal == null) {
+			boolean created = !journalFile.exists();
+			journal = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+			// Without this a crash can lose the new journal's directory entry.
+			if (created) {
+				sync(root);
+				syncs++;
+			}
+		}
+
+		return journal;
+	}
+
+	private void apply(File target, byte[] data) throws IOException {
+		File parent = target.getParentFile();
+
+		if (data == DELETED) {
+			deleteTree(target);
+		} else {
+			if (!parent.isDirectory() && !parent.mkdirs())
+				throw new IOException("Can not create directory " + parent);
+
+			File temp = new File(parent, "." + target.getName() + ".tmp");
+			FileOutputStream out = new FileOutputStream(temp);
+			try {
+				out.write(data);
+			} finally {
+				out.close();
+			}
+
+			try {
+				Files.move(temp.toPath(), target.toPath(),
+						StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			dirty.add(target);
+		}
+
+		// New and removed directory entries are made durable via the parent.
+		for (File dir = parent; dir != null && !dir.equals(root.getParentFile());
+				dir = dir.getParentFile()) {
+			if (!dirty.add(dir))
+				break;
+		}
+	}
+
+	private void recover() throws IOException {
+		if (!journalFile.exists())
+			return;
+
+		byte[] bytes = Files.readAllBytes(journalFile.toPath());
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+		int batches = 0;
+		try {
+			while (true) {
+				if (in.readInt() != MAGIC)
+					break;
+
+				byte[] frame = new byte[length(in)];
+				in.readFully(frame);
+				if (in.readInt() != crc(frame))
+					break;
+
+				for (Map.Entry<File, byte[]> entry : decode(frame).entrySet())
+					apply(entry.getKey(), entry.getValue());
+				batches++;
+			}
+		} catch (EOFException e) {
+			// Torn tail: the batch was never acknowledged.
+		}
+
+		if (batches > 0) {
+			checkpoint();
+		}
+
+		if (journal != null) {
+			journal.close();
+			journal = null;
+		}
+		journalFile.delete();
+	}
+
+	private byte[] encode(Map<File, byte[]> batch) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		out.writeInt(batch.size());
+		for (Map.Entry<File, byte[]> entry : batch.entrySet()) {
+			byte[] data = entry.getValue();
+			String path = root.toPath().relativize(entry.getKey().toPath())
+					.toString().replace(File.separatorChar, '/');
+
+			out.writeByte(data == DELETED ? DELETE : WRITE);
+			out.writeUTF(path);
+			if (data != DELETED) {
+				out.writeInt(data.length);
+				out.write(data);
+			}
+		}
+
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private Map<File, byte[]> decode(byte[] frame) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+		Map<File, byte[]> batch = new LinkedHashMap<File, byte[]>();
+
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			byte op = in.readByte();
+			File file = new File(root, in.readUTF().replace('/', File.separatorChar));
+
+			if (op == DELETE) {
+				batch.put(file, DELETED);
+			} else {
+				byte[] data = new byte[length(in)];
+				in.readFully(data);
+				batch.put(file, data);
+			}
+		}
+
+		return batch;
+	}
+
+	// A length that can not fit in what is left means a corrupt frame.
+	private static int length(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > in.available())
+			throw new EOFException("Corrupt length " + length);
+
+		return length;
+	}
+
+	private static int crc(byte[] frame) {
+		CRC32 crc = new CRC32();
+		crc.update(frame, 0, frame.length);
+		return (int)crc.getValue();
+	}
+
+	private static void sync(File file) throws IOException {
+		try {
+			FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			try {
+				channel.force(true);
+			} finally {
+				channel.close();
+			}
+		} catch (IOException e) {
+			// Some platforms can not open or sync a directory.
+			if (!file.isDirectory())
+				throw e;
+		}
+	}
+
+	/**
+	 * Delete a file or a directory with everything below it.
+	 */
+	public static void deleteTree(File file) throws IOException {
+		if (file.isDirectory()) {
+			File[] children = file.listFiles();
+			if (children != null) {
+				for (File child : children)
+					deleteTree(child);
+			}
+		}
+
+		if (file.exists() && !file.delete())
+			throw new IOException("Can not delete " + file);
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps keys to one canonical value each, created on first use and held
+ * weakly: once nobody else references a value it can be collected, and
+ * its entry is dropped on a later call.
+ */
+public class WeakInterner<K, V, E extends Exception> {
+	private final ConcurrentHashMap<K, Ref<K, V>> map;
+	private final ReferenceQueue<V> queue;
+	private final Factory<K, V, E> factory;
+
+	public interface Factory<K, V, E extends Exception> {
+		V create(K key) throws E;
+	}
+
+	private static class Ref<K, V> extends WeakReference<V> {
+		private final K key;
+
+		private Ref(K key, V value, ReferenceQueue<V> queue) {
+			super(value, queue);
+			this.key = key;
+		}
+	}
+
+	public WeakInterner(Factory<K, V, E> factory) {
+		if (factory == null)
+			throw new IllegalArgumentException();
+
+		this.map = new ConcurrentHashMap<K, Ref<K, V>>();
+		this.queue = new ReferenceQueue<V>();
+		this.factory = factory;
+	}
+
+	public V intern(K key) throws E {
+		Ref<K, V> ref = map.get(key);
+		V value = ref != null ? ref.get() : null;
+		if (value != null)
+			return value;
+
+		expunge();
+
+		V created = factory.create(key);
+		Ref<K, V> newRef = new Ref<K, V>(key, created, queue);
+
+		while (true) {
+			ref = map.putIfAbsent(key, newRef);
+			if (ref == null)
+				return created;
+
+			// Another thread won the race, or the old value was collected.
+			value = ref.get();
+			if (value != null)
+				return value;
+
+			if (map.replace(key, ref, newRef))
+				return created;
+		}
+	}
+
+	public int size() {
+		expunge();
+		return map.size();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void expunge() {
+		Ref<K, V> ref;
+		while ((ref = (Ref<K, V>)queue.poll()) != null)
+			map.remove(ref.key, ref);
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BaselineComparatorTest {
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	private static JsonNode results(String mode, double score) throws IOException {
+		return mapper.readTree("[{\"benchmark\":\"a.B.m\",\"mode\":\"" + mode + "\","
+				+ "\"params\":{\"size\":\"64\"},"
+				+ "\"primaryMetric\":{\"score\":" + score + ",\"scoreUnit\":\"us/op\"}}]");
+	}
+
+	private static List<String> compare(JsonNode baseline, JsonNode current) {
+		PrintStream out = new PrintStream(new ByteArrayOutputStream());
+		return new BaselineComparator(0.10).compare(baseline, current, out);
+	}
+
+	@Test
+	public void testAverageTimeRegression() throws IOException {
+		List<String> regressions = compare(results("avgt", 10.0), results("avgt", 12.0));
+
+		assertEquals(1, regressions.size());
+		assertEquals("a.B.m:size=64", regressions.get(0));
+	}
+
+	@Test
+	public void testAverageTimeImprovement() throws IOException {
+		assertTrue(compare(results("avgt", 10.0), results("avgt", 5.0)).isEmpty());
+	}
+
+	@Test
+	public void testThroughputRegression() throws IOException {
+		assertEquals(1, compare(results("thrpt", 100.0), results("thrpt", 80.0)).size());
+		assertTrue(compare(results("thrpt", 100.0), results("thrpt", 120.0)).isEmpty());
+	}
+
+	@Test
+	public void testWithinThreshold() throws IOException {
+		assertTrue(compare(results("avgt", 10.0), results("avgt", 10.5)).isEmpty());
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+
+public class DiskUsageTest {
+	private static void write(File file, int size) throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		out.write(new byte[size]);
+		out.close();
+	}
+
+	@Test
+	public void testUsage() throws IOException {
+		File root = Files.createTempDirectory("diskusage").toFile();
+		File ids = new File(root, "ids");
+		ids.mkdir();
+		write(new File(root, ".DIDStore"), 4);
+		write(new File(ids, "document"), 100);
+		write(new File(ids, ".meta"), 10);
+
+		DiskUsage usage = DiskUsage.of(root);
+		assertEquals(3, usage.getFiles());
+		assertEquals(2, usage.getDirectories());
+		assertEquals(114, usage.getBytes());
+
+		new File(ids, "document").delete();
+		new File(ids, ".meta").delete();
+		ids.delete();
+		new File(root, ".DIDStore").delete();
+		root.delete();
+	}
+
+	@Test
+	public void testMissing() {
+		DiskUsage usage = DiskUsage.of(new File("/nonexistent/didstore"));
+		assertEquals(0, usage.getFiles());
+		assertEquals(0, usage.getBytes());
+	}
+}
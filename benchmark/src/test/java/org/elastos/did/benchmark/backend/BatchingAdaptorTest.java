@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.backend;
+
+import org.elastos.did.DIDException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BatchingAdaptorTest {
+	private static class FakeBulkAdaptor implements BulkDIDAdaptor {
+		private int bulkCalls;
+		private int transactions;
+
+		@Override
+		public boolean createIdTransaction(String payload, String memo) {
+			return !payload.startsWith("reject");
+		}
+
+		@Override
+		public synchronized List<TransactionResult> createIdTransactions(
+				List<IdTransaction> txs) throws DIDException {
+			bulkCalls++;
+			transactions += txs.size();
+
+			List<TransactionResult> results = new ArrayList<TransactionResult>();
+			for (IdTransaction tx : txs) {
+				if (tx.getPayload().startsWith("error"))
+					results.add(TransactionResult.failed(new DIDException(tx.getPayload())));
+				else
+					results.add(TransactionResult.of(createIdTransaction(tx.getPayload(), tx.getMemo())));
+			}
+
+			return results;
+		}
+
+		@Override
+		public String resolve(String did) {
+			return null;
+		}
+	}
+
+	private static List<Future<Boolean>> submit(ExecutorService pool,
+			final BatchingAdaptor adaptor, String... payloads) {
+		List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+		for (final String payload : payloads) {
+			futures.add(pool.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws DIDException {
+					return adaptor.createIdTransaction(payload, null);
+				}
+			}));
+		}
+
+		return futures;
+	}
+
+	@Test
+	public void testBatching() throws Exception {
+		FakeBulkAdaptor bulk = new FakeBulkAdaptor();
+		BatchingAdaptor adaptor = new BatchingAdaptor(bulk, 4, 50, TimeUnit.MILLISECONDS);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+
+		List<Future<Boolean>> futures = submit(pool, adaptor,
+				"tx0", "tx1", "tx2", "tx3", "tx4", "tx5", "tx6", "tx7", "tx8", "tx9");
+		for (Future<Boolean> future : futures)
+			assertTrue(future.get());
+
+		pool.shutdown();
+
+		assertEquals(10, bulk.transactions);
+		assertTrue(bulk.bulkCalls < 10);
+		assertEquals(bulk.bulkCalls, adaptor.getBatchCount());
+	}
+
+	@Test
+	public void testPerItemResults() throws Exception {
+		FakeBulkAdaptor bulk = new FakeBulkAdaptor();
+		BatchingAdaptor adaptor = new BatchingAdaptor(bulk, 3, 50, TimeUnit.MILLISECONDS);
+		ExecutorService pool = Executors.newFixedThreadPool(3);
+
+		List<Future<Boolean>> futures = submit(pool, adaptor, "tx0", "reject1", "error2");
+
+		assertTrue(futures.get(0).get());
+		assertFalse(futures.get(1).get());
+		try {
+			futures.get(2).get();
+			fail("Expected the failed transaction to throw.");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof DIDException);
+			assertEquals("error2", e.getCause().getMessage());
+		}
+
+		pool.shutdown();
+	}
+
+	@Test
+	public void testLinger() throws DIDException {
+		FakeBulkAdaptor bulk = new FakeBulkAdaptor();
+		BatchingAdaptor adaptor = new BatchingAdaptor(bulk, 100, 10, TimeUnit.MILLISECONDS);
+
+		// A lone transaction is flushed by the linger timer.
+		assertTrue(adaptor.createIdTransaction("tx0", null));
+		assertEquals(1, bulk.bulkCalls);
+	}
+
+	@Test
+	public void testSlowFlushDoesNotBlockLinger() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		BatchingAdaptor adaptor = new BatchingAdaptor(new FakeBulkAdaptor() {
+			@Override
+			public List<TransactionResult> createIdTransactions(List<IdTransaction> txs)
+					throws DIDException {
+				if (txs.get(0).getPayload().equals("slow")) {
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						throw new DIDException("Interrupted.", e);
+					}
+				}
+
+				return super.createIdTransactions(txs);
+			}
+		}, 100, 10, TimeUnit.MILLISECONDS);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+
+		Future<Boolean> slow = submit(pool, adaptor, "slow").get(0);
+		Thread.sleep(50);
+
+		// The next linger batch goes out while the first is still stuck.
+		assertTrue(submit(pool, adaptor, "fast").get(0).get(5, TimeUnit.SECONDS));
+		assertFalse(slow.isDone());
+
+		release.countDown();
+		assertTrue(slow.get());
+
+		adaptor.close();
+		pool.shutdown();
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		FakeBulkAdaptor bulk = new FakeBulkAdaptor();
+		BatchingAdaptor adaptor = new BatchingAdaptor(bulk, 100, 1, TimeUnit.HOURS);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+
+		List<Future<Boolean>> futures = submit(pool, adaptor, "tx0", "tx1");
+		while (adaptor.getPendingCount() < 2)
+			Thread.sleep(5);
+
+		adaptor.close();
+		for (Future<Boolean> future : futures)
+			assertTrue(future.get(5, TimeUnit.SECONDS));
+		assertEquals(1, bulk.bulkCalls);
+
+		try {
+			adaptor.createIdTransaction("tx2", null);
+			fail("Expected the closed adaptor to refuse transactions.");
+		} catch (DIDException expected) {
+		}
+
+		pool.shutdown();
+	}
+
+	@Test
+	public void testDefaultBulkFallback() throws DIDException {
+		List<IdTransaction> txs = new ArrayList<IdTransaction>();
+		txs.add(new IdTransaction("tx0", null));
+		txs.add(new IdTransaction("reject1", null));
+
+		BulkDIDAdaptor single = new BulkDIDAdaptor() {
+			@Override
+			public boolean createIdTransaction(String payload, String memo) {
+				return !payload.startsWith("reject");
+			}
+
+			@Override
+			public String resolve(String did) {
+				return null;
+			}
+		};
+
+		List<TransactionResult> results = single.createIdTransactions(txs);
+		assertTrue(results.get(0).isSuccess());
+		assertFalse(results.get(1).isSuccess());
+	}
+}
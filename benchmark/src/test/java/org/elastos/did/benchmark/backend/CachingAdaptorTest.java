@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.backend;
+
+import org.elastos.did.DIDException;
+import org.elastos.did.backend.DIDAdaptor;
+import org.elastos.did.util.Base64;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CachingAdaptorTest {
+	private static final String did1 = "did:elastos:icJ4z2DULrHEzYSvjKNJpKyhqFDxvYV7pN";
+	private static final String did2 = "did:elastos:ip7ntDo2metGnU8wGP4FnyKCUdbHm4BPDh";
+	private static final String did3 = "did:elastos:iY4Ghz9tCuWvB5rNwvn4ngWvthZMNzEA7U";
+
+	private CountingAdaptor backend;
+	private long now;
+	private CachingAdaptor adaptor;
+
+	private static class CountingAdaptor implements DIDAdaptor {
+		private Map<String, String> docs = new HashMap<String, String>();
+		private int resolves;
+
+		@Override
+		public boolean createIdTransaction(String payload, String memo) {
+			return true;
+		}
+
+		@Override
+		public String resolve(String did) {
+			resolves++;
+			return docs.get(did);
+		}
+	}
+
+	private static String transaction(String did) {
+		String doc = "{\"id\":\"" + did + "\"}";
+		return "{\"header\":{\"operation\":\"create\"},\"payload\":\""
+				+ Base64.encodeToString(doc.getBytes(),
+						Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP)
+				+ "\"}";
+	}
+
+	@Before
+	public void setup() {
+		backend = new CountingAdaptor();
+		backend.docs.put(did1, "{\"id\":\"" + did1 + "\"}");
+		backend.docs.put(did2, "{\"id\":\"" + did2 + "\"}");
+		backend.docs.put(did3, "{\"id\":\"" + did3 + "\"}");
+
+		now = 0;
+		adaptor = new CachingAdaptor(backend, 2, 10, 1, TimeUnit.SECONDS) {
+			@Override
+			long now() {
+				return now;
+			}
+		};
+	}
+
+	@Test
+	public void testHit() throws DIDException {
+		assertEquals(backend.docs.get(did1), adaptor.resolve(did1));
+		assertEquals(backend.docs.get(did1), adaptor.resolve(did1));
+
+		assertEquals(1, backend.resolves);
+		assertEquals(1, adaptor.getHitCount());
+		assertEquals(1, adaptor.getMissCount());
+	}
+
+	@Test
+	public void testNegative() throws DIDException {
+		assertNull(adaptor.resolve("did:elastos:unknown"));
+		assertNull(adaptor.resolve("did:elastos:unknown"));
+		assertEquals(1, backend.resolves);
+
+		now += TimeUnit.SECONDS.toNanos(2);
+		assertNull(adaptor.resolve("did:elastos:unknown"));
+		assertEquals(2, backend.resolves);
+	}
+
+	@Test
+	public void testExpire() throws DIDException {
+		adaptor.resolve(did1);
+		now += TimeUnit.SECONDS.toNanos(9);
+		adaptor.resolve(did1);
+		assertEquals(1, backend.resolves);
+
+		now += TimeUnit.SECONDS.toNanos(2);
+		adaptor.resolve(did1);
+		assertEquals(2, backend.resolves);
+	}
+
+	@Test
+	public void testEviction() throws DIDException {
+		adaptor.resolve(did1);
+		adaptor.resolve(did2);
+		adaptor.resolve(did1);
+		adaptor.resolve(did3);
+
+		assertEquals(2, adaptor.size());
+		assertEquals(1, adaptor.getEvictionCount());
+
+		// did2 was the least recently used one.
+		adaptor.resolve(did1);
+		assertEquals(3, backend.resolves);
+		adaptor.resolve(did2);
+		assertEquals(4, backend.resolves);
+	}
+
+	@Test
+	public void testInvalidateOnPublish() throws DIDException {
+		adaptor.resolve(did1);
+		adaptor.resolve(did2);
+
+		adaptor.createIdTransaction(transaction(did1), null);
+		assertEquals(1, adaptor.size());
+
+		adaptor.resolve(did1);
+		adaptor.resolve(did2);
+		assertEquals(3, backend.resolves);
+	}
+
+	@Test
+	public void testInvalidateAllOnMalformedPublish() throws DIDException {
+		adaptor.resolve(did1);
+		adaptor.resolve(did2);
+
+		adaptor.createIdTransaction("not a transaction", null);
+		assertEquals(0, adaptor.size());
+	}
+
+	@Test
+	public void testNotCachedWhileInFlight() throws DIDException {
+		final CachingAdaptor[] self = new CachingAdaptor[1];
+		CountingAdaptor slow = new CountingAdaptor() {
+			@Override
+			public boolean createIdTransaction(String payload, String memo) {
+				// A resolve while the transaction is in flight must not stick.
+				try {
+					self[0].resolve(did1);
+					self[0].resolve(did1);
+				} catch (DIDException e) {
+					throw new IllegalStateException(e);
+				}
+				return true;
+			}
+		};
+		slow.docs.put(did1, "{\"id\":\"" + did1 + "\"}");
+		self[0] = new CachingAdaptor(slow, 10);
+
+		self[0].createIdTransaction(transaction(did1), null);
+		assertEquals(2, slow.resolves);
+		assertEquals(0, self[0].size());
+
+		self[0].resolve(did1);
+		self[0].resolve(did1);
+		assertEquals(3, slow.resolves);
+	}
+
+	@Test
+	public void testBulkForwarding() throws DIDException {
+		assertFalse(adaptor.supportsBulk());
+
+		final int[] bulkCalls = new int[1];
+		BulkDIDAdaptor bulk = new BulkDIDAdaptor() {
+			@Override
+			public boolean createIdTransaction(String payload, String memo) {
+				return true;
+			}
+
+			@Override
+			public List<TransactionResult> createIdTransactions(List<IdTransaction> txs) {
+				bulkCalls[0]++;
+				List<TransactionResult> results = new ArrayList<TransactionResult>();
+				for (int i = 0; i < txs.size(); i++)
+					results.add(TransactionResult.of(true));
+				return results;
+			}
+
+			@Override
+			public String resolve(String did) {
+				return "{\"id\":\"" + did + "\"}";
+			}
+		};
+
+		CachingAdaptor caching = new CachingAdaptor(bulk, 10);
+		assertTrue(caching.supportsBulk());
+
+		caching.resolve(did1);
+		assertEquals(1, caching.size());
+
+		List<IdTransaction> txs = new ArrayList<IdTransaction>();
+		txs.add(new IdTransaction(transaction(did1), null));
+		txs.add(new IdTransaction(transaction(did2), null));
+		assertEquals(2, caching.createIdTransactions(txs).size());
+		assertEquals(1, bulkCalls[0]);
+		assertEquals(0, caching.size());
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.backend;
+
+import org.elastos.did.DIDException;
+import org.elastos.did.backend.DIDAdaptor;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LoadTestAdaptorTest {
+	private static final DIDAdaptor backend = new DIDAdaptor() {
+		@Override
+		public boolean createIdTransaction(String payload, String memo) {
+			return !payload.equals("reject");
+		}
+
+		@Override
+		public String resolve(String did) {
+			return did.endsWith("missing") ? null : "{\"id\":\"" + did + "\"}";
+		}
+	};
+
+	@Test
+	public void testInjectedLatency() throws DIDException {
+		LoadTestAdaptor adaptor = new LoadTestAdaptor.Builder(backend)
+				.resolveLatency(LatencyDistribution.fixed(20, TimeUnit.MILLISECONDS))
+				.build();
+
+		long start = System.nanoTime();
+		adaptor.resolve("did:elastos:known");
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+
+		start = System.nanoTime();
+		adaptor.createIdTransaction("{}", null);
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(20));
+	}
+
+	@Test
+	public void testErrorRate() {
+		LoadTestAdaptor adaptor = new LoadTestAdaptor.Builder(backend)
+				.transactionErrorRate(1.0)
+				.build();
+
+		try {
+			adaptor.createIdTransaction("{}", null);
+			fail("Expected an injected failure.");
+		} catch (DIDException expected) {
+		}
+	}
+
+	@Test
+	public void testRateCap() throws DIDException {
+		LoadTestAdaptor adaptor = new LoadTestAdaptor.Builder(backend)
+				.maxResolvesPerSecond(100)
+				.build();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 11; i++)
+			adaptor.resolve("did:elastos:known");
+
+		// The first call is free, the other ten are 10ms apart.
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+	}
+
+	@Test
+	public void testRecording() throws Exception {
+		LoadTestAdaptor adaptor = new LoadTestAdaptor.Builder(backend)
+				.record(true)
+				.build();
+
+		adaptor.createIdTransaction("{}", null);
+		adaptor.createIdTransaction("reject", null);
+		assertNull(adaptor.resolve("did:elastos:missing"));
+
+		List<LoadTestAdaptor.CallRecord> calls = adaptor.getRecords();
+		assertEquals(3, calls.size());
+		assertEquals(LoadTestAdaptor.Outcome.SUCCESS, calls.get(0).getOutcome());
+		assertEquals(2, calls.get(0).getSize());
+		assertEquals(LoadTestAdaptor.Outcome.REJECTED, calls.get(1).getOutcome());
+		assertEquals(LoadTestAdaptor.Kind.RESOLVE, calls.get(2).getKind());
+		assertEquals(LoadTestAdaptor.Outcome.NOT_FOUND, calls.get(2).getOutcome());
+
+		StringWriter out = new StringWriter();
+		adaptor.writeCsv(out);
+		assertEquals(4, out.toString().split("\n").length);
+		assertTrue(out.toString().contains("resolve,"));
+
+		adaptor.clearRecords();
+		assertTrue(adaptor.getRecords().isEmpty());
+	}
+
+	@Test
+	public void testRecordingIsBounded() throws Exception {
+		LoadTestAdaptor adaptor = new LoadTestAdaptor.Builder(backend)
+				.record(3)
+				.build();
+
+		adaptor.createIdTransaction("{}", null);
+		adaptor.createIdTransaction("{}", null);
+		adaptor.createIdTransaction("reject", null);
+		assertNull(adaptor.resolve("did:elastos:missing"));
+		assertNull(adaptor.resolve("did:elastos:missing"));
+
+		// Only the last three calls are kept.
+		List<LoadTestAdaptor.CallRecord> calls = adaptor.getRecords();
+		assertEquals(3, calls.size());
+		assertEquals(2, adaptor.getDroppedRecords());
+		assertEquals(LoadTestAdaptor.Outcome.REJECTED, calls.get(0).getOutcome());
+		assertEquals(LoadTestAdaptor.Kind.RESOLVE, calls.get(2).getKind());
+
+		adaptor.clearRecords();
+		assertEquals(0, adaptor.getDroppedRecords());
+	}
+
+	@Test
+	public void testDistributions() {
+		Random random = new Random(1);
+		LatencyDistribution uniform = LatencyDistribution.uniform(1, 2, TimeUnit.MILLISECONDS);
+		LatencyDistribution logNormal = LatencyDistribution.logNormal(1, 0.5, TimeUnit.MILLISECONDS);
+		LatencyDistribution exponential = LatencyDistribution.exponential(1, TimeUnit.MILLISECONDS);
+
+		for (int i = 0; i < 1000; i++) {
+			long nanos = uniform.nextNanos(random);
+			assertTrue(nanos >= 1000000 && nanos <= 2000000);
+			assertTrue(logNormal.nextNanos(random) > 0);
+			assertTrue(exponential.nextNanos(random) >= 0);
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.backend;
+
+import org.elastos.did.DIDException;
+import org.elastos.did.MalformedDocumentException;
+import org.elastos.did.util.Base64;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LocalChainAdaptorTest {
+	private static final String did1 = "did:elastos:icJ4z2DULrHEzYSvjKNJpKyhqFDxvYV7pN";
+	private static final String did2 = "did:elastos:ip7ntDo2metGnU8wGP4FnyKCUdbHm4BPDh";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static String document(String did, int version) {
+		return "{\"id\":\"" + did + "\",\"version\":" + version + "}";
+	}
+
+	private static String transaction(String operation, String doc) {
+		return "{\"header\":{\"operation\":\"" + operation + "\"},\"payload\":\""
+				+ Base64.encodeToString(doc.getBytes(),
+						Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP)
+				+ "\"}";
+	}
+
+	@Test
+	public void testLifecycle() throws Exception {
+		LocalChainAdaptor chain = new LocalChainAdaptor(folder.getRoot());
+
+		assertNull(chain.resolve(did1));
+		assertTrue(chain.createIdTransaction(transaction("create", document(did1, 1)), null));
+		assertEquals(document(did1, 1), chain.resolve(did1));
+
+		assertFalse(chain.createIdTransaction(transaction("create", document(did1, 2)), null));
+		assertFalse(chain.createIdTransaction(transaction("update", document(did2, 1)), null));
+		assertEquals(2, chain.getRejectedCount());
+
+		assertTrue(chain.createIdTransaction(transaction("update", document(did1, 2)), "memo"));
+		assertEquals(document(did1, 2), chain.resolve(did1));
+
+		assertTrue(chain.createIdTransaction(transaction("deactivate", did1), null));
+		assertNull(chain.resolve(did1));
+		assertTrue(chain.isDeactivated(did1));
+		assertFalse(chain.createIdTransaction(transaction("update", document(did1, 3)), null));
+
+		List<LocalChainAdaptor.Transaction> history = chain.getHistory(did1);
+		assertEquals(3, history.size());
+		assertEquals("update", history.get(1).getOperation());
+		assertEquals("memo", history.get(1).getMemo());
+		assertTrue(history.get(2).getBlock() > history.get(1).getBlock());
+
+		chain.close();
+	}
+
+	@Test
+	public void testMalformed() throws Exception {
+		LocalChainAdaptor chain = new LocalChainAdaptor(folder.getRoot());
+
+		String[] invalid = {
+			"not json",
+			"{\"payload\":\"e30\"}",
+			"{\"header\":{\"operation\":\"transfer\"},\"payload\":\"e30\"}",
+			transaction("create", "{}"),
+			"{\"header\":{\"operation\":\"create\"},\"payload\":\"!!\"}"
+		};
+
+		for (String tx : invalid) {
+			try {
+				chain.createIdTransaction(tx, null);
+				fail("Expected " + tx + " to be rejected.");
+			} catch (MalformedDocumentException expected) {
+			}
+		}
+
+		assertEquals(0, chain.getHeight());
+		chain.close();
+	}
+
+	@Test
+	public void testPersistence() throws Exception {
+		LocalChainAdaptor chain = new LocalChainAdaptor(folder.getRoot());
+		chain.createIdTransaction(transaction("create", document(did1, 1)), null);
+		chain.createIdTransaction(transaction("update", document(did1, 2)), null);
+		chain.createIdTransaction(transaction("create", document(did2, 1)), null);
+		chain.close();
+
+		// Simulate a crash in the middle of writing a block.
+		FileOutputStream out = new FileOutputStream(
+				new File(folder.getRoot(), LocalChainAdaptor.JOURNAL), true);
+		out.write("{\"block\":4,\"pay".getBytes());
+		out.close();
+
+		chain = new LocalChainAdaptor(folder.getRoot());
+		assertEquals(3, chain.getHeight());
+		assertEquals(document(did1, 2), chain.resolve(did1));
+		assertEquals(2, chain.getHistory(did1).size());
+		assertEquals(2, chain.getDidCount());
+
+		chain.createIdTransaction(transaction("deactivate", document(did2, 1)), null);
+		chain.close();
+
+		chain = new LocalChainAdaptor(folder.getRoot());
+		assertNull(chain.resolve(did2));
+		assertEquals(4, chain.getHeight());
+		chain.close();
+	}
+
+	@Test
+	public void testReplaySkipsBadLines() throws Exception {
+		LocalChainAdaptor chain = new LocalChainAdaptor(folder.getRoot());
+		chain.createIdTransaction(transaction("create", document(did1, 1)), null);
+		chain.close();
+
+		FileOutputStream out = new FileOutputStream(
+				new File(folder.getRoot(), LocalChainAdaptor.JOURNAL), true);
+		out.write(("{\"time\":1,\"payload\":\"" + transaction("create", document(did2, 1))
+				.replace("\"", "\\\"") + "\"}\n").getBytes());
+		out.write("{\"block\":2,\"time\":1,\"payload\":\"not json\"}\n".getBytes());
+		out.close();
+
+		chain = new LocalChainAdaptor(folder.getRoot());
+		assertEquals(1, chain.getHeight());
+		assertEquals(document(did1, 1), chain.resolve(did1));
+		assertNull(chain.resolve(did2));
+		chain.close();
+	}
+
+	@Test
+	public void testBlockInterval() throws Exception {
+		LocalChainAdaptor chain = new LocalChainAdaptor(folder.getRoot(),
+				50, TimeUnit.MILLISECONDS, 2, true);
+
+		List<IdTransaction> txs = new ArrayList<IdTransaction>();
+		txs.add(new IdTransaction(transaction("create", document(did1, 1)), null));
+		txs.add(new IdTransaction("not json", null));
+		txs.add(new IdTransaction(transaction("create", document(did2, 1)), null));
+		txs.add(new IdTransaction(transaction("update", document(did1, 2)), null));
+
+		long start = System.nanoTime();
+		List<TransactionResult> results = chain.createIdTransactions(txs);
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+
+		assertTrue(results.get(0).isSuccess());
+		assertTrue(results.get(1).getError() instanceof DIDException);
+		assertTrue(results.get(2).isSuccess());
+		assertTrue(results.get(3).isSuccess());
+
+		// Two per block, so the update went into the next block.
+		assertEquals(1, chain.getHistory(did1).get(0).getBlock());
+		assertEquals(2, chain.getHistory(did1).get(1).getBlock());
+		assertEquals(document(did1, 2), chain.resolve(did1));
+		chain.close();
+	}
+
+	@Test
+	public void testWithoutConfirmation() throws Exception {
+		LocalChainAdaptor chain = new LocalChainAdaptor(folder.getRoot(),
+				1, TimeUnit.HOURS, 100, false);
+
+		assertTrue(chain.createIdTransaction(transaction("create", document(did1, 1)), null));
+		assertEquals(1, chain.getMempoolSize());
+		assertNull(chain.resolve(did1));
+
+		chain.close();
+		assertEquals(1, chain.getHeight());
+
+		chain = new LocalChainAdaptor(folder.getRoot());
+		assertEquals(document(did1, 1), chain.resolve(did1));
+		chain.close();
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.backend;
+
+import org.elastos.did.DIDException;
+import org.elastos.did.backend.DIDAdaptor;
+import org.elastos.did.benchmark.metrics.InMemoryMetrics;
+import org.elastos.did.benchmark.metrics.Metrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class MeteredAdaptorTest {
+	private InMemoryMetrics metrics;
+	private MeteredAdaptor adaptor;
+
+	@Before
+	public void setup() {
+		metrics = new InMemoryMetrics();
+		Metrics.setRegistry(metrics);
+
+		adaptor = new MeteredAdaptor(new DIDAdaptor() {
+			@Override
+			public boolean createIdTransaction(String payload, String memo)
+					throws DIDException {
+				if (payload.equals("error"))
+					throw new DIDException("error");
+
+				return !payload.equals("reject");
+			}
+
+			@Override
+			public String resolve(String did) {
+				return did.endsWith("known") ? "{\"id\":\"" + did + "\"}" : null;
+			}
+		});
+	}
+
+	@After
+	public void teardown() {
+		Metrics.setRegistry(null);
+	}
+
+	@Test
+	public void testCreateIdTransaction() throws DIDException {
+		adaptor.createIdTransaction("{}", null);
+		adaptor.createIdTransaction("reject", null);
+		try {
+			adaptor.createIdTransaction("error", null);
+			fail("Expected the adaptor error to propagate.");
+		} catch (DIDException expected) {
+		}
+
+		assertEquals(3, metrics.getHistograms().get("adaptor.createIdTransaction.latency").getCount());
+		assertEquals(6, metrics.getHistograms().get("adaptor.createIdTransaction.size").getMax());
+		assertEquals(Long.valueOf(1), metrics.getCounters().get("adaptor.createIdTransaction.rejected"));
+		assertEquals(Long.valueOf(1), metrics.getCounters().get("adaptor.createIdTransaction.errors"));
+	}
+
+	@Test
+	public void testResolve() throws DIDException {
+		adaptor.resolve("did:elastos:known");
+		adaptor.resolve("did:elastos:missing");
+
+		assertEquals(2, metrics.getHistograms().get("adaptor.resolve.latency").getCount());
+		assertEquals(1, metrics.getHistograms().get("adaptor.resolve.size").getCount());
+		assertEquals(Long.valueOf(1), metrics.getCounters().get("adaptor.resolve.notfound"));
+	}
+
+	@Test
+	public void testDisabled() throws DIDException {
+		Metrics.setRegistry(null);
+		adaptor.resolve("did:elastos:known");
+
+		assertEquals(0, metrics.getHistograms().size());
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InMemoryMetricsTest {
+	@Test
+	public void testBuckets() {
+		for (long v = 0; v < 100000; v++) {
+			long upper = LogHistogram.upperBound(LogHistogram.index(v));
+			assertTrue(upper >= v);
+			assertTrue(upper - v <= v / 16);
+		}
+
+		long big = Long.MAX_VALUE;
+		assertEquals(big, LogHistogram.upperBound(LogHistogram.index(big)));
+	}
+
+	@Test
+	public void testPercentiles() {
+		LogHistogram histogram = new LogHistogram();
+		for (long v = 1; v <= 10000; v++)
+			histogram.record(v);
+
+		HistogramSnapshot snapshot = histogram.snapshot();
+		assertEquals(10000, snapshot.getCount());
+		assertEquals(1, snapshot.getMin());
+		assertEquals(10000, snapshot.getMax());
+		assertEquals(5000.5, snapshot.getMean(), 0.001);
+		assertEquals(5000, snapshot.getP50(), 5000 / 16);
+		assertEquals(9900, snapshot.getP99(), 9900 / 16);
+		assertEquals(9990, snapshot.getP999(), 9990 / 16);
+	}
+
+	@Test
+	public void testEmpty() {
+		HistogramSnapshot snapshot = new LogHistogram().snapshot();
+		assertEquals(0, snapshot.getCount());
+		assertEquals(0, snapshot.getP99());
+	}
+
+	@Test
+	public void testRegistry() throws IOException {
+		InMemoryMetrics metrics = new InMemoryMetrics();
+		assertTrue(metrics.isEnabled());
+		assertSame(metrics.counter("a"), metrics.counter("a"));
+
+		metrics.counter("a").increment();
+		metrics.counter("a").add(2);
+		metrics.histogram("h").record(42);
+
+		assertEquals(Long.valueOf(3), metrics.getCounters().get("a"));
+		assertEquals(1, metrics.getHistograms().get("h").getCount());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		metrics.writeJson(out);
+		JsonNode json = new ObjectMapper().readTree(out.toByteArray());
+		assertEquals(3, json.get("counters").get("a").asLong());
+		assertEquals(42, json.get("histograms").get("h").get("p50").asLong());
+	}
+
+	@Test
+	public void testNoop() {
+		assertFalse(NoopMetrics.INSTANCE.isEnabled());
+		assertSame(NoopMetrics.INSTANCE.counter("a"), NoopMetrics.INSTANCE.counter("b"));
+		assertSame(NoopMetrics.INSTANCE.histogram("a"), NoopMetrics.INSTANCE.histogram("b"));
+
+		Metrics.setRegistry(null);
+		assertSame(NoopMetrics.INSTANCE, Metrics.registry());
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.scenario;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ScenarioOptionsTest {
+	@Test
+	public void testDefaults() {
+		ScenarioOptions options = ScenarioOptions.parse();
+
+		assertEquals(10000, options.getDids());
+		assertEquals(2, options.getCredentials());
+		assertEquals("filesystem", options.getStore());
+		assertEquals("local", options.getBackend());
+		assertNull(options.getRoot());
+		assertFalse(options.isKeep());
+		for (String phase : ScenarioOptions.PHASES)
+			assertTrue(options.runs(phase));
+	}
+
+	@Test
+	public void testParse() {
+		ScenarioOptions options = ScenarioOptions.parse("--dids=250k", "--credentials=0",
+				"--threads=16", "--root=/tmp/scenario", "--keep", "--backend=null",
+				"--block-interval=500", "--block-size=1m", "--publish-every=9",
+				"--phases=list,load", "--out=report.json");
+
+		assertEquals(250000, options.getDids());
+		assertEquals(0, options.getCredentials());
+		assertEquals(16, options.getThreads());
+		assertEquals(new File("/tmp/scenario"), options.getRoot());
+		assertTrue(options.isKeep());
+		assertEquals("null", options.getBackend());
+		assertEquals(500, options.getBlockInterval());
+		assertEquals(1000000, options.getBlockSize());
+		assertEquals(9, options.getPublishEvery());
+		assertEquals(new File("report.json"), options.getOut());
+
+		assertTrue(options.runs("create"));
+		assertTrue(options.runs("list"));
+		assertTrue(options.runs("load"));
+		assertFalse(options.runs("publish"));
+		assertFalse(options.runs("issue"));
+	}
+
+	@Test
+	public void testInvalid() {
+		String[][] invalid = {
+			{ "dids=10" },
+			{ "--dids" },
+			{ "--dids=0" },
+			{ "--dids=ten" },
+			{ "--dids=3000m" },
+			{ "--backend=spv" },
+			{ "--phases=create,sync" },
+			{ "--verbose=1" }
+		};
+
+		for (String[] args : invalid) {
+			try {
+				ScenarioOptions.parse(args);
+				fail("Expected " + args[0] + " to be rejected.");
+			} catch (IllegalArgumentException expected) {
+			}
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.store;
+
+import org.elastos.did.DIDDocument;
+import org.elastos.did.DIDException;
+import org.elastos.did.DIDStore;
+import org.elastos.did.DIDURL;
+import org.elastos.did.backend.DIDAdaptor;
+import org.elastos.did.backend.DIDBackend;
+import org.elastos.did.benchmark.metrics.InMemoryMetrics;
+import org.elastos.did.benchmark.metrics.Metrics;
+import org.elastos.did.util.Mnemonic;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncDIDStoreTest {
+	private static final String passphrase = "secret";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private StubAdaptor adaptor;
+	private DIDStore store;
+	private InMemoryMetrics metrics;
+	private RecordingExecutor io;
+	private RecordingExecutor crypto;
+
+	// Runs every task inline and keeps what escaped from it.
+	private static class RecordingExecutor implements Executor {
+		private int tasks;
+		private Throwable escaped;
+
+		@Override
+		public void execute(Runnable command) {
+			tasks++;
+			try {
+				command.run();
+			} catch (Throwable e) {
+				escaped = e;
+			}
+		}
+	}
+
+	// Answers publishes as the test tells it to.
+	private static class StubAdaptor implements DIDAdaptor {
+		private boolean accept = true;
+		private Throwable failure;
+
+		@Override
+		public boolean createIdTransaction(String payload, String memo)
+				throws DIDException {
+			if (failure instanceof DIDException)
+				throw (DIDException)failure;
+			if (failure instanceof Error)
+				throw (Error)failure;
+
+			return accept;
+		}
+
+		@Override
+		public String resolve(String did) {
+			return null;
+		}
+	}
+
+	@Before
+	public void setup() throws Exception {
+		adaptor = new StubAdaptor();
+		DIDBackend.initialize(adaptor);
+
+		DIDStore.initialize("filesystem", folder.getRoot().getAbsolutePath(), passphrase);
+		store = DIDStore.getInstance();
+		store.initPrivateIdentity(Mnemonic.generate(Mnemonic.ENGLISH), passphrase, true);
+
+		metrics = new InMemoryMetrics();
+		Metrics.setRegistry(metrics);
+
+		io = new RecordingExecutor();
+		crypto = new RecordingExecutor();
+	}
+
+	@After
+	public void teardown() {
+		Metrics.setRegistry(null);
+	}
+
+	private DIDURL primary(DIDDocument doc) {
+		return new DIDURL(doc.getSubject(), "primary");
+	}
+
+	@Test
+	public void testExecutorRouting() throws Exception {
+		AsyncDIDStore async = new AsyncDIDStore(store, io, crypto);
+
+		DIDDocument doc = async.newDid(passphrase, "my did").get();
+		assertNotNull(doc);
+		assertEquals(1, crypto.tasks);
+		assertEquals(0, io.tasks);
+
+		async.storeDid(doc).get();
+		async.loadDid(doc.getSubject()).get();
+		async.publishDid(doc, primary(doc), passphrase).get();
+		assertEquals(1, crypto.tasks);
+		assertEquals(3, io.tasks);
+
+		assertEquals(1, metrics.getHistograms().get("store.newDid.latency").getCount());
+		assertEquals(1, metrics.getHistograms().get("store.publishDid.queue").getCount());
+	}
+
+	@Test
+	public void testPublishResult() throws Exception {
+		AsyncDIDStore async = new AsyncDIDStore(store, io, crypto);
+		DIDDocument doc = store.newDid(passphrase, "my did");
+
+		assertTrue(async.publishDid(doc, primary(doc), passphrase).get());
+
+		adaptor.accept = false;
+		assertFalse(async.publishDid(doc, primary(doc), passphrase).get());
+	}
+
+	@Test
+	public void testErrorPropagates() throws Exception {
+		AsyncDIDStore async = new AsyncDIDStore(store, io, crypto);
+		DIDDocument doc = store.newDid(passphrase, "my did");
+
+		adaptor.failure = new DIDException("Backend unavailable.");
+		CompletableFuture<Boolean> future = async.publishDid(doc, primary(doc), passphrase);
+		try {
+			future.get();
+			fail("Expected the publish to fail.");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof DIDException);
+		}
+
+		// A checked failure stays in the future, not on the worker thread.
+		assertNull(io.escaped);
+		assertEquals(Long.valueOf(1), metrics.getCounters().get("store.publishDid.errors"));
+	}
+
+	@Test
+	public void testErrorIsRethrown() throws Exception {
+		AsyncDIDStore async = new AsyncDIDStore(store, io, crypto);
+		DIDDocument doc = store.newDid(passphrase, "my did");
+
+		Error error = new Error("Out of something.");
+		adaptor.failure = error;
+		CompletableFuture<Boolean> future = async.publishDid(doc, primary(doc), passphrase);
+		try {
+			future.get();
+			fail("Expected the publish to fail.");
+		} catch (ExecutionException e) {
+			assertSame(error, e.getCause());
+		}
+
+		assertSame(error, io.escaped);
+	}
+
+	@Test
+	public void testRejectedSubmission() throws Exception {
+		AsyncDIDStore async = new AsyncDIDStore(store, new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException("Shut down.");
+			}
+		});
+
+		CompletableFuture<DIDDocument> future = async.newDid(passphrase, "my did");
+		try {
+			future.get();
+			fail("Expected the submission to be rejected.");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+		}
+
+		assertEquals(Long.valueOf(1), metrics.getCounters().get("store.newDid.errors"));
+	}
+}
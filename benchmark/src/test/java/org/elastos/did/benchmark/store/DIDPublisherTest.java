@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.store;
+
+import org.elastos.did.DIDDocument;
+import org.elastos.did.DIDException;
+import org.elastos.did.DIDStore;
+import org.elastos.did.backend.DIDAdaptor;
+import org.elastos.did.backend.DIDBackend;
+import org.elastos.did.benchmark.backend.TransactionResult;
+import org.elastos.did.util.Mnemonic;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DIDPublisherTest {
+	private static final String passphrase = "secret";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private DIDStore store;
+	private ExecutorService executor;
+
+	// Accepts or rejects the transactions in submission order.
+	private static class ScriptedAdaptor implements DIDAdaptor {
+		private final String script;
+		private int next;
+
+		private ScriptedAdaptor(String script) {
+			this.script = script;
+		}
+
+		@Override
+		public synchronized boolean createIdTransaction(String payload, String memo)
+				throws DIDException {
+			char c = script.charAt(next++);
+			if (c == 'e')
+				throw new DIDException("Backend unavailable.");
+
+			return c == 'a';
+		}
+
+		@Override
+		public String resolve(String did) {
+			return null;
+		}
+	}
+
+	@Before
+	public void setup() throws Exception {
+		DIDStore.initialize("filesystem", folder.getRoot().getAbsolutePath(), passphrase);
+		store = DIDStore.getInstance();
+		store.initPrivateIdentity(Mnemonic.generate(Mnemonic.ENGLISH), passphrase, true);
+
+		// One thread keeps the submissions in document order.
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void cleanup() {
+		executor.shutdownNow();
+	}
+
+	private List<DIDDocument> newDids(int count) throws DIDException {
+		List<DIDDocument> docs = new ArrayList<DIDDocument>(count);
+		for (int i = 0; i < count; i++)
+			docs.add(store.newDid(passphrase, "my did " + i));
+
+		return docs;
+	}
+
+	@Test
+	public void testRejectedIsReported() throws DIDException {
+		List<DIDDocument> docs = newDids(3);
+
+		DIDBackend.initialize(new ScriptedAdaptor("ara"));
+		List<TransactionResult> results = new DIDPublisher(store, executor)
+				.publishDids(docs, "primary", passphrase);
+
+		assertEquals(3, results.size());
+		assertTrue(results.get(0).isSuccess());
+		assertFalse(results.get(1).isSuccess());
+		assertNull(results.get(1).getError());
+		assertTrue(results.get(2).isSuccess());
+	}
+
+	@Test
+	public void testErrorIsReported() throws DIDException {
+		List<DIDDocument> docs = newDids(2);
+
+		DIDBackend.initialize(new ScriptedAdaptor("ea"));
+		List<TransactionResult> results = new DIDPublisher(store, executor)
+				.publishDids(docs, "primary", passphrase);
+
+		assertFalse(results.get(0).isSuccess());
+		assertNotNull(results.get(0).getError());
+		assertTrue(results.get(1).isSuccess());
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class Aes256cbcKeyTest {
+	// Same vector as Aes256cbcTest.
+	private static final String passwd = "secret";
+	private static final String plain = "The quick brown fox jumps over the lazy dog.";
+	private static final String cipherBase64 = "TBimuq42IyD6FsoZK0AoCOt75uiL/gEepZTpgu59RYSV+NR+fqxsYfx0cyyzGacX";
+
+	@Test
+	public void testEncrypt() throws GeneralSecurityException {
+		Aes256cbcKey key = Aes256cbcKey.derive(passwd);
+
+		assertArrayEquals(Base64.getDecoder().decode(cipherBase64), key.encrypt(plain.getBytes()));
+		// Reusing the key gives the same result.
+		assertArrayEquals(Base64.getDecoder().decode(cipherBase64), key.encrypt(plain.getBytes()));
+	}
+
+	@Test
+	public void testDecrypt() throws GeneralSecurityException {
+		Aes256cbcKey key = Aes256cbcKey.derive(passwd);
+
+		assertArrayEquals(plain.getBytes(), key.decrypt(Base64.getDecoder().decode(cipherBase64)));
+	}
+
+	@Test
+	public void testByteBufferInPlace() throws GeneralSecurityException {
+		Aes256cbcKey key = Aes256cbcKey.derive(passwd);
+		byte[] expected = Base64.getDecoder().decode(cipherBase64);
+
+		ByteBuffer buf = ByteBuffer.allocate(plain.length() + 16);
+		buf.put(plain.getBytes()).flip();
+		ByteBuffer out = buf.duplicate();
+		out.clear();
+		int len = key.encrypt(buf, out);
+
+		assertEquals(expected.length, len);
+		assertArrayEquals(expected, Arrays.copyOf(out.array(), len));
+
+		ByteBuffer in = ByteBuffer.wrap(out.array(), 0, len);
+		ByteBuffer dec = ByteBuffer.allocateDirect(len);
+		len = key.decrypt(in, dec);
+		dec.flip();
+
+		byte[] result = new byte[len];
+		dec.get(result);
+		assertArrayEquals(plain.getBytes(), result);
+	}
+
+	@Test
+	public void testStreams() throws GeneralSecurityException, IOException {
+		Aes256cbcKey key = Aes256cbcKey.derive(passwd);
+		byte[] data = new byte[100000];
+		new Random(1).nextBytes(data);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		OutputStream out = key.encryptTo(bytes);
+		for (int off = 0; off < data.length; off += 4099)
+			out.write(data, off, Math.min(4099, data.length - off));
+		out.close();
+
+		assertArrayEquals(key.encrypt(data), bytes.toByteArray());
+
+		InputStream in = key.decryptFrom(new ByteArrayInputStream(bytes.toByteArray()));
+		ByteArrayOutputStream plainBytes = new ByteArrayOutputStream();
+		byte[] buf = new byte[1000];
+		int len;
+		while ((len = in.read(buf)) > 0)
+			plainBytes.write(buf, 0, len);
+		in.close();
+
+		assertArrayEquals(data, plainBytes.toByteArray());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testDestroy() throws GeneralSecurityException {
+		Aes256cbcKey key = Aes256cbcKey.derive(passwd);
+		key.destroy();
+
+		assertTrue(key.isDestroyed());
+		key.encrypt(plain.getBytes());
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import org.elastos.did.util.Base64;
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class Base64CodecTest {
+	private static final int urlFlags = Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP;
+	private static final int[] flagSets = { urlFlags, Base64.NO_WRAP,
+			Base64.URL_SAFE | Base64.NO_WRAP, Base64.NO_PADDING | Base64.NO_WRAP };
+
+	private static byte[] random(int size) {
+		byte[] data = new byte[size];
+		new Random(size).nextBytes(data);
+		return data;
+	}
+
+	@Test
+	public void testEncode() {
+		for (int flags : flagSets) {
+			for (int size = 0; size < 64; size++) {
+				byte[] data = random(size);
+				String expected = Base64.encodeToString(data, flags);
+				assertEquals(expected.length(), Base64Codec.encodedLength(size, flags));
+
+				// Encode from the middle of a buffer into the middle of another.
+				byte[] src = new byte[size + 10];
+				System.arraycopy(data, 0, src, 5, size);
+				byte[] dst = new byte[expected.length() + 10];
+				int n = Base64Codec.encode(src, 5, size, dst, 3, flags);
+
+				assertEquals(expected, new String(dst, 3, n, StandardCharsets.US_ASCII));
+			}
+		}
+	}
+
+	@Test
+	public void testDecode() {
+		for (int flags : flagSets) {
+			for (int size = 0; size < 64; size++) {
+				byte[] data = random(size);
+				String encoded = Base64.encodeToString(data, flags);
+				assertTrue(Base64Codec.maxDecodedLength(encoded.length()) >= size);
+
+				byte[] dst = new byte[size + 8];
+				int n = Base64Codec.decode(encoded, 0, encoded.length(), dst, 4, flags);
+				assertArrayEquals(data, Arrays.copyOfRange(dst, 4, 4 + n));
+
+				byte[] ascii = encoded.getBytes(StandardCharsets.US_ASCII);
+				n = Base64Codec.decode(ascii, 0, ascii.length, dst, 0, flags);
+				assertArrayEquals(data, Arrays.copyOf(dst, n));
+			}
+		}
+	}
+
+	@Test
+	public void testDirectBuffers() {
+		byte[] data = random(1000);
+		ByteBuffer plain = ByteBuffer.allocateDirect(data.length);
+		plain.put(data).flip();
+
+		ByteBuffer encoded = ByteBuffer.allocateDirect(Base64Codec.encodedLength(data.length, urlFlags));
+		Base64Codec.encode(plain, encoded, urlFlags);
+		assertEquals(0, plain.remaining());
+		assertEquals(0, encoded.remaining());
+
+		encoded.flip();
+		ByteBuffer decoded = ByteBuffer.allocateDirect(data.length);
+		assertEquals(data.length, Base64Codec.decode(encoded, decoded, urlFlags));
+
+		byte[] result = new byte[data.length];
+		decoded.flip();
+		decoded.get(result);
+		assertArrayEquals(data, result);
+	}
+
+	@Test
+	public void testDecodeSkipsWhitespace() {
+		byte[] data = random(100);
+		String encoded = Base64.encodeToString(data, Base64.NO_WRAP);
+		String wrapped = encoded.substring(0, 40) + "\r\n" + encoded.substring(40, 80)
+				+ "\n " + encoded.substring(80) + "\n";
+
+		byte[] dst = new byte[100];
+		assertEquals(100, Base64Codec.decode(wrapped, 0, wrapped.length(), dst, 0, 0));
+		assertArrayEquals(data, dst);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCharacter() {
+		Base64Codec.decode("QUJD*", 0, 5, new byte[8], 0, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDataAfterPadding() {
+		Base64Codec.decode("QQ==QUJD", 0, 8, new byte[8], 0, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTruncated() {
+		Base64Codec.decode("QUJDR", 0, 5, new byte[8], 0, 0);
+	}
+
+	@Test(expected = BufferOverflowException.class)
+	public void testOutputTooSmall() {
+		Base64Codec.decode("QUJDRA", 0, 6, new byte[3], 0, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRequiresNoWrap() {
+		Base64Codec.encode(new byte[3], 0, 3, new byte[4], 0, Base64.DEFAULT);
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import org.elastos.did.util.Base64;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class Base64StreamTest {
+	private static final int urlFlags = Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP;
+	private static final int[] sizes = { 0, 1, 2, 3, 4, 3071, 3072, 3073, 10000 };
+
+	private static byte[] random(int size) {
+		byte[] data = new byte[size];
+		new Random(size).nextBytes(data);
+		return data;
+	}
+
+	private static String encode(byte[] data, int flags) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		OutputStream out = new Base64OutputStream(bytes, flags);
+
+		// Odd-sized writes to cross chunk boundaries.
+		for (int off = 0; off < data.length; off += 1000)
+			out.write(data, off, Math.min(1000, data.length - off));
+
+		out.close();
+		return new String(bytes.toByteArray(), "US-ASCII");
+	}
+
+	private static byte[] decode(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buf = new byte[777];
+		int len;
+		while ((len = in.read(buf)) > 0)
+			out.write(buf, 0, len);
+
+		in.close();
+		return out.toByteArray();
+	}
+
+	@Test
+	public void testEncode() throws IOException {
+		for (int size : sizes) {
+			byte[] data = random(size);
+			assertEquals(Base64.encodeToString(data, urlFlags), encode(data, urlFlags));
+			assertEquals(Base64.encodeToString(data, Base64.NO_WRAP), encode(data, Base64.NO_WRAP));
+		}
+	}
+
+	@Test
+	public void testDecode() throws IOException {
+		for (int size : sizes) {
+			byte[] data = random(size);
+			String encoded = Base64.encodeToString(data, urlFlags);
+			assertArrayEquals(data, decode(new Base64InputStream(encoded, urlFlags)));
+
+			encoded = Base64.encodeToString(data, Base64.NO_WRAP);
+			assertArrayEquals(data, decode(new Base64InputStream(encoded, Base64.DEFAULT)));
+		}
+	}
+
+	@Test
+	public void testDecodeSkipsLineBreaks() throws IOException {
+		String input = "eyJpYXQiOjE1MTYyMzkwMjIsInN1YiI6IjEyMzQ1Njc4OTAiLCJuYW1lIjoiSm9obiBEb2UifQ";
+		String expected = "{\"iat\":1516239022,\"sub\":\"1234567890\",\"name\":\"John Doe\"}";
+
+		String wrapped = input.substring(0, 30) + "\n" + input.substring(30) + "\n";
+		byte[] output = decode(new Base64InputStream(wrapped, urlFlags));
+		assertEquals(expected, new String(output));
+	}
+
+	@Test
+	public void testFlush() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		OutputStream out = new Base64OutputStream(bytes, urlFlags);
+		out.write("abcde".getBytes());
+		out.flush();
+		assertEquals("YWJj", bytes.toString("US-ASCII"));
+
+		out.close();
+		assertEquals("YWJjZGU", bytes.toString("US-ASCII"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRequiresNoWrap() {
+		new Base64OutputStream(new ByteArrayOutputStream(), Base64.URL_SAFE);
+	}
+
+	@Test(expected = IOException.class)
+	public void testInvalidInput() throws IOException {
+		decode(new Base64InputStream("@@@@", urlFlags));
+	}
+}
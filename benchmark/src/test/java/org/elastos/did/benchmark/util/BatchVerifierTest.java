@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchVerifierTest {
+	// Items carry their expected outcome, so no real keys are needed.
+	private static final BatchVerifier verifier = new BatchVerifier(new ForkJoinPool(4)) {
+		@Override
+		boolean verify(Item item) {
+			FakeItem fake = (FakeItem)item;
+			if (fake.corrupt)
+				throw new IllegalArgumentException("Invalid point encoding");
+
+			return fake.valid;
+		}
+	};
+
+	private static class FakeItem extends BatchVerifier.Item {
+		private final boolean valid;
+		private final boolean corrupt;
+
+		private FakeItem(boolean valid) {
+			this(valid, false);
+		}
+
+		private FakeItem(boolean valid, boolean corrupt) {
+			super(new byte[33], new byte[0], new byte[64]);
+			this.valid = valid;
+			this.corrupt = corrupt;
+		}
+	}
+
+	private static List<FakeItem> items(int count, int... invalid) {
+		List<FakeItem> items = new ArrayList<FakeItem>(count);
+		for (int i = 0; i < count; i++) {
+			boolean valid = true;
+			for (int j : invalid) {
+				if (i == j)
+					valid = false;
+			}
+
+			items.add(new FakeItem(valid));
+		}
+
+		return items;
+	}
+
+	@Test
+	public void testAllValid() {
+		BitSet result = verifier.verify(items(100), false);
+
+		assertEquals(100, result.cardinality());
+		assertTrue(verifier.verifyAll(items(100)));
+	}
+
+	@Test
+	public void testBitmap() {
+		BitSet result = verifier.verify(items(100, 3, 50, 99), false);
+
+		assertEquals(97, result.cardinality());
+		assertFalse(result.get(3));
+		assertFalse(result.get(50));
+		assertFalse(result.get(99));
+		assertTrue(result.get(0));
+		assertTrue(result.get(98));
+	}
+
+	@Test
+	public void testFailFast() {
+		BitSet result = verifier.verify(items(1000, 0), true);
+
+		assertFalse(result.get(0));
+		assertTrue(result.cardinality() < 1000);
+		assertFalse(verifier.verifyAll(items(1000, 500)));
+	}
+
+	@Test
+	public void testCorruptKey() {
+		List<FakeItem> items = items(100);
+		items.set(42, new FakeItem(true, true));
+
+		BitSet result = verifier.verify(items, false);
+		assertEquals(99, result.cardinality());
+		assertFalse(result.get(42));
+
+		assertFalse(verifier.verifyAll(items));
+	}
+
+	@Test
+	public void testEmpty() {
+		assertEquals(0, verifier.verify(items(0), false).cardinality());
+		assertTrue(verifier.verifyAll(items(0)));
+	}
+}
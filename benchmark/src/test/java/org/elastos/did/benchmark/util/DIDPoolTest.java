@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import org.elastos.did.DID;
+import org.elastos.did.DIDException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class DIDPoolTest {
+	private static final String did = "did:elastos:icJ4z2DULrHEzYSvjKNJpKyhqFDxvYV7pN";
+
+	@Test
+	public void testSharedUrlKey() throws DIDException {
+		DIDPool pool = new DIDPool();
+		DID subject = pool.did(did);
+
+		assertSame(subject, pool.did(did));
+		assertSame(pool.url(subject, "primary"), pool.url(did + "#primary"));
+		assertSame(pool.url(did + "#cred-1"), pool.url(subject, "cred-1"));
+		assertNotSame(pool.url(subject, "primary"), pool.url(subject, "cred-1"));
+		assertEquals(3, pool.size());
+
+		// URLs with a path are keyed by their string.
+		assertSame(pool.url(did + "/path#primary"), pool.url(did + "/path#primary"));
+		assertEquals(4, pool.size());
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FileBatchTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static String read(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testCommit() throws IOException {
+		File root = folder.getRoot();
+		File ids = new File(root, "ids");
+		File doc = new File(ids, "icJ4z2DULrHEzYSvjKNJpKyhqFDxvYV7pN/document");
+		File meta = new File(ids, ".icJ4z2DULrHEzYSvjKNJpKyhqFDxvYV7pN.meta");
+
+		FileBatch batch = new FileBatch(root, 0);
+		batch.write(doc, "{\"id\":1}");
+		batch.write(meta, "my did");
+		batch.write(doc, "{\"id\":2}");
+		assertEquals(2, batch.size());
+		assertFalse(doc.exists());
+
+		batch.commit();
+		assertEquals(0, batch.size());
+		assertEquals("{\"id\":2}", read(doc));
+		assertEquals("my did", read(meta));
+		// The journal, and the root for the journal's new directory entry.
+		assertEquals(2, batch.getSyncCount());
+
+		batch.delete(doc.getParentFile());
+		batch.delete(meta);
+		batch.commit();
+		assertFalse(doc.getParentFile().exists());
+		assertFalse(meta.exists());
+		assertEquals(3, batch.getSyncCount());
+
+		batch.write(meta, "discarded");
+		batch.rollback();
+		batch.commit();
+		assertFalse(meta.exists());
+
+		batch.close();
+		assertFalse(new File(root, FileBatch.JOURNAL).exists());
+		assertEquals(1, root.list().length);
+	}
+
+	@Test
+	public void testRecover() throws IOException {
+		File root = folder.getRoot();
+		File a = new File(root, "a/document");
+		File b = new File(root, "b/document");
+
+		FileBatch batch = new FileBatch(root, 0);
+		batch.write(a, "a1");
+		batch.commit();
+		batch.write(b, "b1");
+		batch.write(a, "a2");
+		batch.commit();
+
+		// Lose the applied files, as after a crash before the checkpoint.
+		a.delete();
+		b.delete();
+
+		// And tear a third batch while it was being journaled.
+		FileOutputStream out = new FileOutputStream(new File(root, FileBatch.JOURNAL), true);
+		out.write(new byte[] { 0x44, 0x49, 0x44, 0x42, 0, 0, 1 });
+		out.close();
+
+		FileBatch recovered = new FileBatch(root, 0);
+		assertEquals("a2", read(a));
+		assertEquals("b1", read(b));
+		assertFalse(new File(root, FileBatch.JOURNAL).exists());
+		recovered.close();
+	}
+
+	@Test
+	public void testCorruptLength() throws IOException {
+		File root = folder.getRoot();
+		File a = new File(root, "a");
+
+		FileBatch batch = new FileBatch(root, 0);
+		batch.write(a, "a1");
+		batch.commit();
+		a.delete();
+
+		// A frame claiming to be 2 GiB long must not be allocated.
+		FileOutputStream out = new FileOutputStream(new File(root, FileBatch.JOURNAL), true);
+		out.write(new byte[] { 0x44, 0x49, 0x44, 0x42, 0x7f, -1, -1, -1, 0, 0, 0, 0 });
+		out.close();
+
+		FileBatch recovered = new FileBatch(root, 0);
+		assertEquals("a1", read(a));
+		recovered.close();
+	}
+
+	@Test
+	public void testAutoCheckpoint() throws IOException {
+		File root = folder.getRoot();
+		FileBatch batch = new FileBatch(root, 1);
+
+		batch.write(new File(root, "x"), "x");
+		batch.commit();
+
+		// The root and the commit, then the file, the root directory and
+		// the truncation.
+		assertEquals(5, batch.getSyncCount());
+		assertEquals(0, new File(root, FileBatch.JOURNAL).length());
+		batch.close();
+	}
+
+	@Test
+	public void testOutsideRoot() throws IOException {
+		File root = folder.newFolder("store");
+		FileBatch batch = new FileBatch(root);
+
+		File[] invalid = {
+			root,
+			new File(root, FileBatch.JOURNAL),
+			new File(root, "../other"),
+			folder.getRoot()
+		};
+
+		for (File file : invalid) {
+			try {
+				batch.write(file, "x");
+				fail("Expected " + file + " to be rejected.");
+			} catch (IllegalArgumentException expected) {
+			}
+		}
+
+		batch.close();
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2019 Elastos Foundation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.elastos.did.benchmark.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class WeakInternerTest {
+	private final AtomicInteger created = new AtomicInteger();
+
+	private final WeakInterner<String, StringBuilder, RuntimeException> interner =
+			new WeakInterner<String, StringBuilder, RuntimeException>(
+					new WeakInterner.Factory<String, StringBuilder, RuntimeException>() {
+		@Override
+		public StringBuilder create(String key) {
+			created.incrementAndGet();
+			return new StringBuilder(key);
+		}
+	});
+
+	@Test
+	public void testIntern() {
+		StringBuilder a = interner.intern("did:elastos:a");
+		StringBuilder b = interner.intern(new String("did:elastos:a"));
+		StringBuilder c = interner.intern("did:elastos:c");
+
+		assertSame(a, b);
+		assertNotSame(a, c);
+		assertEquals(2, created.get());
+		assertEquals(2, interner.size());
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<StringBuilder>> futures = new ArrayList<Future<StringBuilder>>();
+
+		for (int i = 0; i < 64; i++) {
+			futures.add(pool.submit(new Callable<StringBuilder>() {
+				@Override
+				public StringBuilder call() {
+					return interner.intern("did:elastos:shared");
+				}
+			}));
+		}
+
+		StringBuilder first = futures.get(0).get();
+		for (Future<StringBuilder> future : futures)
+			assertSame(first, future.get());
+
+		pool.shutdown();
+		assertEquals(1, interner.size());
+	}
+}